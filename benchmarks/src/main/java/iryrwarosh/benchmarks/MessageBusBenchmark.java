@@ -0,0 +1,55 @@
+package iryrwarosh.benchmarks;
+
+import iryrwarosh.Creature;
+import iryrwarosh.HeadlessMain;
+import iryrwarosh.MessageBus;
+import iryrwarosh.Moved;
+import iryrwarosh.World;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(3)
+public class MessageBusBenchmark {
+	private MessageBus bus;
+	private Moved message;
+
+	// HeadlessMain subscribes every saga the game does, so this measures a realistic fan out.
+	@Setup
+	public void newGame(){
+		System.setProperty("java.awt.headless", "true");
+		HeadlessMain game = new HeadlessMain(0, Seeds.WORLD, false);
+		game.newGame();
+		World world = game.world();
+
+		Creature mover = null;
+		for (Creature creature : world.creatures()){
+			if (!creature.isPlayer() && !creature.isHuman()){
+				mover = creature;
+				break;
+			}
+		}
+		bus = world.bus();
+		message = new Moved(world, mover, mover.position.copy(), mover.position.copy());
+	}
+
+	@Benchmark
+	public void publishMoved(){
+		bus.publish(message);
+	}
+}
@@ -0,0 +1,38 @@
+package iryrwarosh.benchmarks;
+
+import iryrwarosh.Point;
+import iryrwarosh.Rng;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(3)
+public class PointBenchmark {
+	private Point point = new Point(40, 12);
+	private Rng random = new Rng(Seeds.WORLD);
+
+	@Benchmark
+	public List<Point> neighbors(){
+		return point.neighbors();
+	}
+
+	@Benchmark
+	public List<Point> shuffledNeighbors(){
+		return point.neighbors(random);
+	}
+}
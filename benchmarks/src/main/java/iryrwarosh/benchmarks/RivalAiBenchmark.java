@@ -0,0 +1,55 @@
+package iryrwarosh.benchmarks;
+
+import iryrwarosh.Creature;
+import iryrwarosh.HeadlessMain;
+import iryrwarosh.RivalAi;
+import iryrwarosh.World;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(3)
+public class RivalAiBenchmark {
+	private World world;
+	private Creature rival;
+	private RivalAi ai;
+
+	// Planning only reads the world and never moves the rival, so every call starts from the same place.
+	@Setup(Level.Trial)
+	public void newGame(){
+		System.setProperty("java.awt.headless", "true");
+		HeadlessMain game = new HeadlessMain(0, Seeds.WORLD, false);
+		game.newGame();
+		world = game.world();
+
+		for (Creature creature : world.creatures()){
+			if (creature.isHuman() && !creature.isPlayer()){
+				rival = creature;
+				break;
+			}
+		}
+		ai = new RivalAi(0.01, 0.5);
+		ai.update(world, rival);
+	}
+
+	@Benchmark
+	public void plan(){
+		ai.plan(world, rival);
+	}
+}
@@ -0,0 +1,8 @@
+package iryrwarosh.benchmarks;
+
+// Every benchmark builds the same world so results are comparable between runs and machines.
+final class Seeds {
+	static final long WORLD = 42;
+
+	private Seeds() { }
+}
@@ -0,0 +1,91 @@
+package iryrwarosh.benchmarks;
+
+import iryrwarosh.Creature;
+import iryrwarosh.HeadlessMain;
+import iryrwarosh.Rng;
+import iryrwarosh.World;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(3)
+public class WorldBenchmark {
+	private static final int WARMUP_TURNS = 200;
+	private static final int TURNS = 500;
+	private static final int LOOKUPS = 1024;
+
+	private World world;
+	private int[] xs;
+	private int[] ys;
+
+	// HeadlessMain respawns a bad guy for every kill, so the population stays near its default size.
+	@Setup(Level.Trial)
+	public void newGame(){
+		Game game = new Game();
+		game.newGame();
+		world = game.game.world();
+
+		Rng random = new Rng(Seeds.WORLD).split("lookups");
+		xs = new int[LOOKUPS];
+		ys = new int[LOOKUPS];
+		for (int i = 0; i < LOOKUPS; i++){
+			xs[i] = random.nextInt(world.width());
+			ys[i] = random.nextInt(world.height());
+		}
+	}
+
+	// A turn costs anything from a few microseconds to a few milliseconds depending on what
+	// wakes up, so every iteration replays the same TURNS turns from the same start.
+	@State(Scope.Thread)
+	public static class Game {
+		private HeadlessMain game;
+
+		@Setup(Level.Iteration)
+		public void newGame(){
+			// collecting the last iteration's game isn't part of a turn
+			game = null;
+			System.gc();
+
+			System.setProperty("java.awt.headless", "true");
+			game = new HeadlessMain(0, Seeds.WORLD, true);
+			game.newGame();
+
+			for (int i = 0; i < WARMUP_TURNS; i++)
+				game.playTurn();
+		}
+	}
+
+	@Benchmark
+	@BenchmarkMode(Mode.SingleShotTime)
+	@Warmup(iterations = 30, batchSize = TURNS)
+	@Measurement(iterations = 10, batchSize = TURNS)
+	@OutputTimeUnit(TimeUnit.MILLISECONDS)
+	public void update(Game game){
+		game.game.playTurn();
+	}
+
+	@Benchmark
+	@OutputTimeUnit(TimeUnit.NANOSECONDS)
+	public void creatureAt(Blackhole blackhole){
+		for (int i = 0; i < LOOKUPS; i++){
+			Creature creature = world.creature(xs[i], ys[i]);
+			blackhole.consume(creature);
+		}
+	}
+}
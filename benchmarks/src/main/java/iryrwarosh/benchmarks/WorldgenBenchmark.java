@@ -0,0 +1,43 @@
+package iryrwarosh.benchmarks;
+
+import iryrwarosh.HeadlessMain;
+import iryrwarosh.Rng;
+import iryrwarosh.World;
+import iryrwarosh.Worldgen;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(3)
+public class WorldgenBenchmark {
+	static {
+		System.setProperty("java.awt.headless", "true");
+	}
+
+	// every screen, to compare with how much of that a new game gets away with not doing
+	@Benchmark
+	public World build(){
+		World world = new Worldgen(80 / 3, 24 / 3, new Rng(Seeds.WORLD)).build();
+		world.makeAllScreens();
+		return world;
+	}
+
+	// the world, sagas, player, rivals and monsters, making only the screens that something is put on at once
+	@Benchmark
+	public World newGame(){
+		HeadlessMain game = new HeadlessMain(0, Seeds.WORLD, false);
+		game.newGame();
+		return game.world();
+	}
+}
@@ -0,0 +1,53 @@
+package iryrwarosh;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+public class MessageBusTest {
+
+	private static class Numbered extends Message {
+		int number;
+
+		Numbered(int number){
+			super(null);
+			this.number = number;
+		}
+
+		public boolean involves(Creature player){
+			return false;
+		}
+	}
+
+	// Messages left past the cascade limit are still handled before anything published after them.
+	@Test
+	public void leftoversGoBeforeLaterMessages(){
+		final MessageBus bus = new MessageBus();
+		final List<Integer> handled = new ArrayList<Integer>();
+		final int cascade = MessageBus.MAX_CASCADE_DEPTH + 3;
+
+		bus.subscribe(Numbered.class, new Handler<Numbered>(){
+			public void handle(Numbered message){
+				handled.add(message.number);
+				if (message.number < cascade)
+					bus.publish(new Numbered(message.number + 1));
+			}
+		});
+
+		bus.startBatching();
+		bus.publish(new Numbered(1));
+		bus.stopBatching();
+		assertEquals(MessageBus.MAX_CASCADE_DEPTH, handled.size());
+
+		bus.publish(new Numbered(100));
+
+		List<Integer> expected = new ArrayList<Integer>();
+		for (int i = 1; i <= cascade; i++)
+			expected.add(i);
+		expected.add(100);
+		assertEquals(expected, handled);
+	}
+}
@@ -0,0 +1,104 @@
+package iryrwarosh;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import org.junit.Test;
+
+public class MovedTest {
+
+	// Moves are handed out after the mover's whole turn, so each one has to be handled where it
+	// happened: the first step goes past a long reach and over some rupees, the second goes on.
+	@Test
+	public void eachStepOfADoubleMoveCounts(){
+		World world = openField();
+		new ItemSpecialsSaga().subscribe(world.bus());
+		new LootSaga().subscribe(world.bus());
+
+		Creature mover = new Creature("mover", 'm', Common.hsv(0, 50, 50), 3){
+			public void update(World world){
+				super.update(world);
+				moveBy(world, 1, 0);
+				moveBy(world, 1, 0);
+			}
+		};
+		mover.addTrait(Trait.WALKER);
+		mover.addTrait(Trait.DOUBLE_MOVE);
+		mover.position = new Point(30, 13);
+		world.add(mover);
+
+		Creature reacher = new Creature("reacher", 'r', Common.hsv(0, 50, 50), 3){
+			public void update(World world){
+			}
+		};
+		reacher.addTrait(Trait.REACH_ATTACK);
+		reacher.addTrait(Trait.KNOCKBACK);
+		reacher.position = new Point(30, 12);
+		world.add(reacher);
+		reacher.random = new Rng(1){
+			private static final long serialVersionUID = 1L;
+
+			public double nextDouble(){
+				return 0;
+			}
+		};
+
+		world.add(new LootSaga().rupees_5(), 31, 13);
+
+		world.update();
+
+		assertNull(world.item(31, 13));
+		assertEquals(5, mover.rupees());
+		assertEquals(2, mover.hearts());
+
+		// knocked on away from the reacher, from where it got to
+		assertEquals(34, mover.position.x);
+		assertEquals(15, mover.position.y);
+	}
+
+	// Nobody cares about a step onto bare ground with no long reach beside it, so none is made.
+	@Test
+	public void movesNobodyCaresAboutAreNotMade(){
+		World world = openField();
+		new ItemSpecialsSaga().subscribe(world.bus());
+		new LootSaga().subscribe(world.bus());
+
+		final int[] made = { 0 };
+		Interest nobody = new Interest(){
+			public boolean covers(World world, Creature creature, int x, int y) { return false; }
+		};
+		world.bus().subscribe(Moved.class, nobody, new Handler<Moved>(){
+			public void handle(Moved message) { made[0]++; }
+		});
+
+		Creature mover = new Creature("mover", 'm', Common.hsv(0, 50, 50), 3){
+			public void update(World world){
+				super.update(world);
+				moveBy(world, 1, 0);
+			}
+		};
+		mover.addTrait(Trait.WALKER);
+		mover.position = new Point(30, 13);
+		world.add(mover);
+		world.add(new LootSaga().rupees_1(), 32, 13);
+
+		world.update();
+		assertEquals(31, mover.position.x);
+		assertEquals(0, made[0]);
+
+		world.update();
+		assertEquals(32, mover.position.x);
+		assertEquals(1, made[0]);
+		assertEquals(1, mover.rupees());
+	}
+
+	private World openField(){
+		World world = new Worldgen(80 / 3, 24 / 3, new Rng(1)).build();
+		for (int x = 19; x < 57; x++)
+		for (int y = 9; y < 18; y++){
+			world.setTile(Tile.GREEN_DIRT, x, y);
+			world.removeItem(x, y);
+		}
+		return world;
+	}
+}
@@ -0,0 +1,56 @@
+package iryrwarosh;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+public class RegionsTest {
+	private static final Tile[] TILES = { Tile.GREEN_DIRT, Tile.WHITE_WALL, Tile.WATER1, Tile.GREEN_TREE1 };
+
+	// Tiles changed one at a time should leave the regions just as labeling the screens afresh would.
+	@Test
+	public void changedTilesMatchRegionsMadeFromScratch(){
+		World world = new Worldgen(80 / 3, 24 / 3, new Rng(2)).build();
+		Random random = new Random(2);
+
+		List<Point> screens = new ArrayList<Point>();
+		for (int sx = 0; sx < world.width() / Chunk.WIDTH; sx++)
+		for (int sy = 0; sy < world.height() / Chunk.HEIGHT; sy++)
+			if (random.nextInt(3) > 0)
+				screens.add(new Point(sx, sy));
+		world.makeScreens(screens);
+
+		for (int change = 0; change < 2000; change++){
+			Point screen = screens.get(random.nextInt(screens.size()));
+			int x = screen.x * Chunk.WIDTH + random.nextInt(Chunk.WIDTH);
+			int y = screen.y * Chunk.HEIGHT + random.nextInt(Chunk.HEIGHT);
+			world.setTile(TILES[random.nextInt(TILES.length)], x, y);
+
+			if (change % 100 == 0)
+				assertSameRegions(world, screens, random);
+		}
+		assertSameRegions(world, screens, random);
+	}
+
+	private void assertSameRegions(World world, List<Point> screens, Random random){
+		Regions fresh = new Regions(world);
+		for (Point screen : screens)
+			fresh.screenMade(world.chunk(screen.x, screen.y), screen.x, screen.y);
+
+		for (int i = 0; i < 2000; i++){
+			int x1 = random.nextInt(world.width());
+			int y1 = random.nextInt(world.height());
+			int x2 = random.nextInt(world.width());
+			int y2 = random.nextInt(world.height());
+
+			for (int movementClass = 0; movementClass < Tile.MOVEMENT_CLASSES; movementClass++){
+				assertEquals(fresh.reachable(movementClass, x1, y1, x2, y2),
+						world.reachable(new Point(x1, y1), new Point(x2, y2), movementClass));
+			}
+		}
+	}
+}
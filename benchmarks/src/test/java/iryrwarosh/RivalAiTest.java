@@ -0,0 +1,97 @@
+package iryrwarosh;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+public class RivalAiTest {
+
+	// The shared attraction layer is flooded from every item, but a rival only goes by the ones
+	// itemsNear shows it, so loot out of sight makes no difference to where it goes.
+	@Test
+	public void ignoresLootOutOfSight(){
+		Creature withLoot = rival();
+		Creature withoutLoot = rival();
+		World worldWithLoot = openField(34, withLoot);
+		World worldWithoutLoot = openField(-1, withoutLoot);
+
+		for (int turn = 0; turn < 4; turn++){
+			assertTrue(worldWithLoot.itemsNear(withLoot).isEmpty());
+
+			worldWithLoot.update();
+			worldWithoutLoot.update();
+
+			assertEquals(withoutLoot.position.x, withLoot.position.x);
+			assertEquals(withoutLoot.position.y, withLoot.position.y);
+		}
+	}
+
+	@Test
+	public void headsForLootInSight(){
+		Creature rival = rival();
+		World world = openField(30, rival);
+
+		for (int distance = 8; distance > 6; distance--){
+			assertEquals(distance, rival.position.distanceTo(new Point(30, 13)));
+
+			world.update();
+		}
+		assertEquals(6, rival.position.distanceTo(new Point(30, 13)));
+	}
+
+	// Rivals plan before anyone moves, but whatever moves before them this turn has to count.
+	@Test
+	public void replansWhenLootIsTakenFirst(){
+		final boolean[] steal = { false };
+		Creature thief = new Creature("thief", 't', Common.hsv(0, 50, 50), 3){
+			public void update(World world){
+				if (!steal[0])
+					return;
+				world.removeItem(30, 13);
+				world.add(newLoot(), 14, 13);
+				steal[0] = false;
+			}
+		};
+		thief.position = new Point(50, 16);
+		Creature rival = rival();
+		World world = openField(30, thief, rival);
+
+		world.update();
+		assertEquals(23, rival.position.x);
+
+		steal[0] = true;
+		world.update();
+		assertEquals(22, rival.position.x);
+	}
+
+	private Creature rival(){
+		return new Factory(new Rng(1)).rival("Test", 0, null, null, new RivalAi(0, 0));
+	}
+
+	private Item newLoot(){
+		Item loot = new Item("rupees", '$', Common.hsv(60, 50, 50), "Worth having.");
+		loot.collectableValue(15);
+		return loot;
+	}
+
+	// An open field with these creatures added in order; any without a place start at (22, 13).
+	private World openField(int lootX, Creature... creatures){
+		World world = new Worldgen(80 / 3, 24 / 3, new Rng(1)).build();
+		for (int x = 19; x < 57; x++)
+		for (int y = 9; y < 18; y++){
+			world.setTile(Tile.GREEN_DIRT, x, y);
+			world.removeItem(x, y);
+		}
+
+		for (Creature creature : creatures){
+			if (creature.position == null)
+				creature.position = new Point(22, 13);
+			world.add(creature);
+		}
+
+		if (lootX != -1)
+			world.add(newLoot(), lootX, 13);
+		return world;
+	}
+}
@@ -0,0 +1,66 @@
+package iryrwarosh;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+import org.junit.Test;
+
+public class ScreenGraphTest {
+	private static final Tile[] TILES = { Tile.GREEN_DIRT, Tile.WHITE_WALL, Tile.WATER1, Tile.GREEN_TREE1 };
+
+	// Tiles changed one at a time should leave the graph joining the same places at the same
+	// costs as making it afresh would.
+	@Test
+	public void changedTilesMatchGraphMadeFromScratch(){
+		World world = new Worldgen(80 / 3, 24 / 3, new Rng(2)).build();
+		Random random = new Random(2);
+
+		List<Point> screens = new ArrayList<Point>();
+		for (int sx = 0; sx < world.width() / Chunk.WIDTH; sx++)
+		for (int sy = 0; sy < world.height() / Chunk.HEIGHT; sy++)
+			if (random.nextInt(3) > 0)
+				screens.add(new Point(sx, sy));
+		world.makeScreens(screens);
+
+		for (int movementClass = 0; movementClass < Tile.MOVEMENT_CLASSES; movementClass++)
+			world.screenGraph(movementClass);
+
+		for (int change = 0; change < 2000; change++){
+			Point screen = screens.get(random.nextInt(screens.size()));
+			// mostly along the borders, where the crossings are
+			int x = screen.x * Chunk.WIDTH + (random.nextBoolean() ? random.nextInt(2) * (Chunk.WIDTH - 1) : random.nextInt(Chunk.WIDTH));
+			int y = screen.y * Chunk.HEIGHT + (random.nextBoolean() ? random.nextInt(2) * (Chunk.HEIGHT - 1) : random.nextInt(Chunk.HEIGHT));
+			world.setTile(TILES[random.nextInt(TILES.length)], x, y);
+
+			if (change % 100 == 0)
+				assertSameGraph(world);
+		}
+		assertSameGraph(world);
+	}
+
+	private void assertSameGraph(World world){
+		for (int movementClass = 0; movementClass < Tile.MOVEMENT_CLASSES; movementClass++)
+			assertEquals(edgesByCell(new ScreenGraph(world, movementClass)), edgesByCell(world.screenGraph(movementClass)));
+	}
+
+	// node numbers depend on the order things were found in, so compare by where the nodes are
+	private Map<Integer,Set<String>> edgesByCell(ScreenGraph graph){
+		Map<Integer,Set<String>> found = new TreeMap<Integer,Set<String>>();
+		for (int[] nodes : graph.nodesInScreen){
+			for (int node : nodes){
+				Set<String> edges = new TreeSet<String>();
+				for (int i = 0; i < graph.edges[node].length; i++)
+					edges.add(graph.cells[graph.edges[node][i]] + ":" + graph.costs[node][i]);
+				found.put(graph.cells[node], edges);
+			}
+		}
+		return found;
+	}
+}
@@ -1,11 +1,14 @@
 package iryrwarosh;
 
-public class ArmosSaga implements Handler {
+public class ArmosSaga {
 
-	@Override
-	public void handle(Message message) {
-		if (BumpedIntoObsticle.class.isAssignableFrom(message.getClass()))
-			handle((BumpedIntoObsticle)message);
+	public void subscribe(MessageBus bus) {
+		Interest player = new Interest(){
+			public boolean covers(World world, Creature creature, int x, int y) { return creature.isPlayer(); }
+		};
+		bus.subscribe(BumpedIntoObsticle.class, player, new Handler<BumpedIntoObsticle>(){
+			public void handle(BumpedIntoObsticle message) { ArmosSaga.this.handle(message); }
+		});
 	}
 
 	public void handle(BumpedIntoObsticle message) {
@@ -16,7 +19,7 @@ public class ArmosSaga implements Handler {
 
 	private void makeArmos(World world, int x, int y) {
 		Tile statue = Tile.STATUE;
-		world.setTile(Tile.WHITE_TILE1.variation(x, y), x, y);
+		world.setTile(Tile.WHITE_TILE1.variation(x, y, world.random("tiles")), x, y);
 		Creature armos = new Creature("armos", statue.glyph(), statue.color(), 5){
 			public void update(World world){
 				super.update(world);
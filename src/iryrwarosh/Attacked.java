@@ -3,11 +3,18 @@ package iryrwarosh;
 public class Attacked extends Message {
 	public Creature attacker;
 	public Creature attacked;
+	private String specialType;
 	
 	public Attacked(World world, Creature attacker, Creature attacked, String specialType){
-		super(world, addArticle("The", attacker.name()) + " attacked " + addArticle("the", attacked.name()) + (specialType==null ? "" : " " + specialType) );
+		super(world);
 		this.attacker = attacker;
 		this.attacked = attacked;
+		this.specialType = specialType;
+	}
+
+	@Override
+	protected String describe() {
+		return addArticle("The", attacker.name()) + " attacked " + addArticle("the", attacked.name()) + (specialType==null ? "" : " " + specialType);
 	}
 
 	@Override
@@ -6,12 +6,17 @@ public class BlockSomeDamage extends Message {
 	public Item armor;
 	
 	public BlockSomeDamage(World world, Creature attacker, Creature creature, Item armor) {
-		super(world, addArticle("The", (armor != null ? armor.name() : creature.name())) + " deflects some damage");
+		super(world);
 		this.creature = creature;
 		this.attacker = attacker;
 		this.armor = armor;
 	}
 
+	@Override
+	protected String describe() {
+		return addArticle("The", (armor != null ? armor.name() : creature.name())) + " deflects some damage";
+	}
+
 	@Override
 	public boolean involves(Creature player) {
 		return creature == player || attacker == player;
@@ -4,12 +4,19 @@ public class BumpedIntoObsticle extends Message {
 	public Creature creature;
 	public int x;
 	public int y;
+	private Tile tile;
 	
 	public BumpedIntoObsticle(World world, Creature creature, int x, int y) {
-		super(world, addArticle("The", creature.name()) + " bumped into the " + world.tile(x, y).description());
+		super(world);
 		this.creature = creature;
 		this.x = x;
 		this.y = y;
+		this.tile = world.tile(x, y);
+	}
+
+	@Override
+	protected String describe() {
+		return addArticle("The", creature.name()) + " bumped into the " + tile.description();
 	}
 
 	@Override
@@ -5,11 +5,16 @@ public class CallForHelp extends Message {
 	public Creature attacker;
 	
 	public CallForHelp(World world, Creature attacked, Creature attacker){
-		super(world, addArticle("The", attacked.name()) + " calls for help");
+		super(world);
 		this.attacked = attacked;
 		this.attacker = attacker;
 	}
 
+	@Override
+	protected String describe() {
+		return addArticle("The", attacked.name()) + " calls for help";
+	}
+
 	@Override
 	public boolean involves(Creature player) {
 		return attacker == player || attacked == player;
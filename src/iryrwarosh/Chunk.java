@@ -0,0 +1,91 @@
+package iryrwarosh;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Everything the world keeps for one screen: its tiles, who is standing where, and what's lying
+// around. Positions inside a chunk are local, 0 to WIDTH-1 and 0 to HEIGHT-1. The parts that are
+// usually empty aren't made until something is put there.
+public class Chunk {
+	public static final int WIDTH = 19;
+	public static final int HEIGHT = 9;
+
+	private static final Tile[] TILES = Tile.values();
+	private static final int WORDS = (WIDTH * HEIGHT + 63) / 64;
+	
+	// stands in for a screen that hasn't been made yet; nothing can go there and nothing is there
+	static final Chunk UNMADE = new Chunk(Collections.<Creature>emptyList());
+
+	private byte[] tiles;
+	private long[] passable;
+	private Creature[] occupants;
+	private List<Creature> creatures;
+	private Map<Integer,Item> items;
+
+	public Chunk(){
+		this(new ArrayList<Creature>());
+	}
+
+	private Chunk(List<Creature> creatures){
+		this.tiles = new byte[WIDTH * HEIGHT];
+		this.passable = new long[Tile.MOVEMENT_CLASSES * WORDS];
+		this.creatures = creatures;
+
+		Arrays.fill(tiles, (byte)Tile.OUT_OF_BOUNDS.ordinal());
+	}
+
+	public Tile tile(int x, int y){
+		return TILES[tiles[x * HEIGHT + y]];
+	}
+
+	public void setTile(int x, int y, Tile tile){
+		tiles[x * HEIGHT + y] = (byte)tile.ordinal();
+		updatePassable(x * HEIGHT + y);
+	}
+
+	public boolean isPassable(int movementClass, int x, int y){
+		int i = x * HEIGHT + y;
+		return (passable[movementClass * WORDS + (i >> 6)] & (1L << i)) != 0;
+	}
+
+	private void updatePassable(int i){
+		Tile tile = TILES[tiles[i]];
+
+		for (int movementClass = 0; movementClass < Tile.MOVEMENT_CLASSES; movementClass++){
+			if (tile.canBeEnteredBy(movementClass))
+				passable[movementClass * WORDS + (i >> 6)] |= 1L << i;
+			else
+				passable[movementClass * WORDS + (i >> 6)] &= ~(1L << i);
+		}
+	}
+
+	Creature occupant(int x, int y){
+		return occupants == null ? null : occupants[x * HEIGHT + y];
+	}
+
+	void setOccupant(int x, int y, Creature creature){
+		if (occupants == null){
+			if (creature == null)
+				return;
+			occupants = new Creature[WIDTH * HEIGHT];
+		}
+		occupants[x * HEIGHT + y] = creature;
+	}
+
+	// the live list, for readers that won't hold on to it or change the world while iterating
+	List<Creature> creatures(){
+		return creatures;
+	}
+
+	// items keyed by their world position packed as (x << 16) | y, or null if there's never been one here
+	Map<Integer,Item> items(boolean create){
+		if (items == null && create)
+			items = new LinkedHashMap<Integer,Item>();
+
+		return items;
+	}
+}
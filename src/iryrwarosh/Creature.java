@@ -11,6 +11,12 @@ public class Creature {
 	public Point position;
 	public Point homeScreenPosition;
 	
+	Creature nextOccupant;
+	int lastUpdatedTurn;
+	
+	Rng random;
+	public Rng random() { return random; }
+	
 	public Point lastMovedDirection = new Point(0,0);
 	public Point lastMovedDirection() { return lastMovedDirection.copy(); }
 	
@@ -53,13 +59,40 @@ public class Creature {
 	private boolean hasDoubleAttackedThisTurn = false;
 	
 	private List<Trait> traits = new ArrayList<Trait>();
+	private long effectiveTraits;
+	
+	private int movementClass;
+	public int movementClass() { return movementClass; }
 
-	public void addTrait(Trait trait) { traits.add(trait); }
+	public void addTrait(Trait trait) { 
+		traits.add(trait);
+		updateEffectiveTraits();
+	}
 
 	public boolean hasTrait(Trait trait) {
-		return traits.contains(trait)
-				|| leftHand != null && leftHand.hasTrait(trait)
-				|| rightHand != null && rightHand.hasTrait(trait);
+		return (effectiveTraits & trait.bit()) != 0;
+	}
+	
+	// what others can tell from looking at this creature, like the traits listed in its description
+	public boolean showsTrait(Trait trait) {
+		return !hasTrait(Trait.MYSTERIOUS) && traits.contains(trait);
+	}
+	
+	void updateEffectiveTraits(){
+		effectiveTraits = 0;
+		
+		for (Trait trait : traits)
+			effectiveTraits |= trait.bit();
+		
+		if (leftHand != null)
+			effectiveTraits |= leftHand.traitBits();
+		
+		if (rightHand != null)
+			effectiveTraits |= rightHand.traitBits();
+		
+		movementClass = (hasTrait(Trait.WALKER) ? Tile.WALK : 0)
+				| (hasTrait(Trait.SWIMMER) ? Tile.SWIM : 0)
+				| (hasTrait(Trait.FLIER) ? Tile.FLY : 0);
 	}
 	
 	public boolean isPlayer(){
@@ -111,16 +144,11 @@ public class Creature {
 	}
 	
 	public boolean canEnter(Tile tile){
-		if (hasTrait(Trait.WALKER) && tile.isGround())
-			return true;
-		
-		if (hasTrait(Trait.SWIMMER) && tile.isSwimmable())
-			return true;
-		
-		if (hasTrait(Trait.FLIER) && tile.isFlyable())
-			return true;
-		
-		return false;
+		return tile.canBeEnteredBy(movementClass);
+	}
+	
+	public boolean canEnter(World world, int x, int y){
+		return world.isPassable(movementClass, x, y);
 	}
 
 	public boolean isHuman(){
@@ -132,6 +160,7 @@ public class Creature {
 			return;
 		
 		boolean didJump = false;
+		Point from = position.copy();
 		
 		for (int i = 0; i < 3; i++){
 			if (isHuman() && rupees < 1)
@@ -148,15 +177,15 @@ public class Creature {
 			}
 			
 			didJump = true;
-			position.x += dx;
-			position.y += dy;
+			world.move(this, position.x+dx, position.y+dy);
 			
 			loseRupees(world, 1);
 		}
 		
 		if (didJump) {
 			hasMovedThisTurn = true;
-			publishMessage(new Jumped(world, this));
+			if (anyoneCaresAbout(world, Jumped.class))
+				publishMessage(world, new Jumped(world, this, from, position.copy()));
 		}
 	}
 	
@@ -168,10 +197,10 @@ public class Creature {
 			return;
 		
 		if (hasTrait(Trait.TERRITORIAL)
-				&& ((position.x+x) / 19 != homeScreenPosition.x || (position.y+y) / 9 != homeScreenPosition.y))
+				&& ((position.x+x) / Chunk.WIDTH != homeScreenPosition.x || (position.y+y) / Chunk.HEIGHT != homeScreenPosition.y))
 			return;
 		
-		if (hasTrait(Trait.JUMPER) && !hasTrait(Trait.TERRITORIAL) && Math.random() < 0.25) 
+		if (hasTrait(Trait.JUMPER) && !hasTrait(Trait.TERRITORIAL) && random.nextDouble() < 0.25) 
 			jumpBy(world, x, y);
 		
 		Creature other = world.creature(position.x+x, position.y+y);
@@ -179,19 +208,21 @@ public class Creature {
 		if (other == null) {
 			lastMovedDirection.x = x;
 			lastMovedDirection.y = y;
-			if (canEnter(world.tile(position.x+x, position.y+y))){
-				position.x += x;
-				position.y += y;
+			if (canEnter(world, position.x+x, position.y+y)){
+				Point from = position.copy();
+				world.move(this, position.x+x, position.y+y);
 				hasMovedThisTurn = true;
-				publishMessage(new Moved(world, this));
+				if (anyoneCaresAbout(world, Moved.class))
+					publishMessage(world, new Moved(world, this, from, position.copy()));
 			} else {
-				lastWanderX = (int)(Math.random() * 3) - 1;
-				lastWanderY = (int)(Math.random() * 3) - 1;
-				publishMessage(new BumpedIntoObsticle(world, this, position.x+x, position.y+y));
+				lastWanderX = (int)(random.nextDouble() * 3) - 1;
+				lastWanderY = (int)(random.nextDouble() * 3) - 1;
+				if (anyoneCaresAbout(world, BumpedIntoObsticle.class))
+					publishMessage(world, new BumpedIntoObsticle(world, this, position.x+x, position.y+y));
 			}
 		} else if (isFriendlyTo(other)) {
-			lastWanderX = (int)(Math.random() * 3) - 1;
-			lastWanderY = (int)(Math.random() * 3) - 1;
+			lastWanderX = (int)(random.nextDouble() * 3) - 1;
+			lastWanderY = (int)(random.nextDouble() * 3) - 1;
 			return;
 		} else if (hasDoubleAttackedThisTurn == false 
 				&& other.evadeCheck(world)){
@@ -218,13 +249,13 @@ public class Creature {
 			
 		hasAttackedThisTurn = true;
 		
-		if (hasTrait(Trait.DEFLECT_MELEE) && Math.random() < 0.33){
-			publishMessage(new DeflectedMelee(world, other, this));
+		if (hasTrait(Trait.DEFLECT_MELEE) && random.nextDouble() < 0.33){
+			publishMessage(world, new DeflectedMelee(world, other, this));
 			return;
 		}
 
 		if (other.hasTrait(Trait.SPIKED)){
-			publishMessage(new HitSpikes(world, this, other));
+			publishMessage(world, new HitSpikes(world, this, other));
 			loseHearts(world, other, 1, null, "You impaled youself on the spikes of a " + other.name());
 			
 			if (hearts < 1)
@@ -265,13 +296,13 @@ public class Creature {
 		other.reducedEvasionCounter += 10;
 		
 		if (other.reducedEvasionCounter == 10)
-			publishMessage(new ReducedEvasion(world, this, other));
+			publishMessage(world, new ReducedEvasion(world, this, other));
 	}
 	
 	private void poison(World world, Creature other){
 		other.poisonCounter += 10;
 		other.lastPoisonedBy = this;
-		publishMessage(new Poisoned(world, this, other));
+		publishMessage(world, new Poisoned(world, this, other));
 	}
 	
 	public void curePoison() {
@@ -287,12 +318,12 @@ public class Creature {
 	private List<Point> evasionCandidates(World world){
 		List<Point> candidates = new ArrayList<Point>();
 		
-		for (Point p : position.neighbors()) {
-			if (canEnter(world.tile(p.x, p.y)) && world.creature(p.x, p.y) == null)
+		for (Point p : position.neighbors(random)) {
+			if (canEnter(world, p.x, p.y) && world.creature(p.x, p.y) == null)
 				candidates.add(p);
 		}
 		
-		Collections.shuffle(candidates);
+		Collections.shuffle(candidates, random);
 		return candidates;
 	}
 	
@@ -315,12 +346,13 @@ public class Creature {
 	}
 	
 	public boolean evadeCheck(World world){
-		return Math.random() * 100 < evadePercent(world);
+		return random.nextDouble() * 100 < evadePercent(world);
 	}
 	
 	public void evade(World world, Creature other){
-		position = evasionCandidates(world).get(0);
-		publishMessage(new Evaded(world, other, this));
+		Point to = evasionCandidates(world).get(0);
+		world.move(this, to.x, to.y);
+		publishMessage(world, new Evaded(world, other, this));
 	}
 	
 	private Point positionBeforeHiding;
@@ -334,7 +366,7 @@ public class Creature {
 		hasDoubleMovedThisTurn = false;
 		
 		if (homeScreenPosition == null)
-			homeScreenPosition = new Point(position.x / 19, position.y / 9); 
+			homeScreenPosition = new Point(position.x / Chunk.WIDTH, position.y / Chunk.HEIGHT); 
 		
 		if (leftHand != null)
 			leftHand.update(world, this);
@@ -351,11 +383,11 @@ public class Creature {
 		if (hasTrait(Trait.REGENERATES) && regenerateCounter-- < 1){
 			regenerateCounter = 10;
 			if (hearts < maxHearts)
-				recoverHearts(1);
+				recoverHearts(world, 1);
 		}
 		
 		if (hasTrait(Trait.HIDER) && hiddenCounter-- < 1){
-			hiddenCounter = 5 + (int)(Math.random() * 5);
+			hiddenCounter = 5 + (int)(random.nextDouble() * 5);
 			
 			if (positionBeforeHiding == null)
 				hide(world);
@@ -363,22 +395,56 @@ public class Creature {
 				unhide(world);
 		}
 		
-		if (!isHidden() && !canEnter(world.tile(position.x, position.y)))
+		if (!isHidden() && !canEnter(world, position.x, position.y))
 			loseHearts(world, this, 1, null, "You died from standing in " + world.tile(position.x, position.y).description());
 		
 		if (hasTrait(Trait.ROCK_SPITTER) 
 				&& projectileCooldown-- < 1 
-				&& Math.random() < 0.1)
+				&& random.nextDouble() < 0.1)
 			spitRock(world);
 	}
 
+	// Cheaply advance the timers of a creature that slept through some turns in a dormant screen.
+	public void catchUp(World world, int turns){
+		if (poisonCounter > 0){
+			int lowest = Math.max(1, poisonCounter - turns + 1);
+			int ticks = poisonCounter / 5 - (lowest - 1) / 5;
+			poisonCounter = Math.max(0, poisonCounter - turns);
+			
+			for (int i = 0; i < ticks && hearts > 0; i++)
+				loseHearts(world, lastPoisonedBy, 1, null, "You died of poison from a " + lastPoisonedBy.name());
+		}
+		
+		reducedEvasionCounter = Math.max(0, reducedEvasionCounter - turns);
+		
+		if (hasTrait(Trait.REGENERATES)){
+			int firstRegeneration = Math.max(0, regenerateCounter) + 1;
+			
+			if (turns < firstRegeneration) {
+				regenerateCounter -= turns;
+			} else {
+				recoverHearts(world, 1 + (turns - firstRegeneration) / 11);
+				regenerateCounter = 10 - (turns - firstRegeneration) % 11;
+			}
+		}
+		
+		hiddenCounter = Math.max(0, hiddenCounter - turns);
+		projectileCooldown = Math.max(0, projectileCooldown - turns);
+		
+		if (turns > huntCounter)
+			prey = null;
+		
+		if (turns > fleeCounter)
+			preditor = null;
+	}
+
 	private void spitRock(World world) {
 		while (lastWanderX == 0 && lastWanderY == 0){ // don't spit rock at yourself
-			lastWanderX = (int)(Math.random() * 3) - 1;
-			lastWanderY = (int)(Math.random() * 3) - 1;
+			lastWanderX = (int)(random.nextDouble() * 3) - 1;
+			lastWanderY = (int)(random.nextDouble() * 3) - 1;
 		}
 		
-		projectileCooldown += 10 + (int)(Math.random() * 10);
+		projectileCooldown += 10 + (int)(random.nextDouble() * 10);
 		world.add(new Projectile("rock", this,   7, AsciiPanel.brightYellow, 1, position.plus(lastWanderX, lastWanderY), new Point(lastWanderX, lastWanderY)));
 		world.add(new Projectile("", this, 250, AsciiPanel.brightYellow, 0, position.copy(), new Point(lastWanderX, lastWanderY)));
 	}
@@ -389,22 +455,22 @@ public class Creature {
 		
 		while (positionBeforeHiding != null){
 			if (hasTrait(Trait.TERRITORIAL)){
-				x = homeScreenPosition.x * 19 + (int)(Math.random() * 19);
-				y = homeScreenPosition.y *  9 + (int)(Math.random() * 9);	
+				x = homeScreenPosition.x * Chunk.WIDTH + (int)(random.nextDouble() * Chunk.WIDTH);
+				y = homeScreenPosition.y * Chunk.HEIGHT + (int)(random.nextDouble() * Chunk.HEIGHT);	
 			} else {
-				x = positionBeforeHiding.x + (int)(Math.random() * 7) - 3;
-				y = positionBeforeHiding.y + (int)(Math.random() * 7) - 3;
+				x = positionBeforeHiding.x + (int)(random.nextDouble() * 7) - 3;
+				y = positionBeforeHiding.y + (int)(random.nextDouble() * 7) - 3;
 			}
 			
-			if (!canEnter(world.tile(x, y)) || world.creature(x, y) != null)
+			if (!canEnter(world, x, y) || world.creature(x, y) != null)
 				continue;
 			
-			position.x = x;
-			position.y = y;
+			world.move(this, x, y);
 			positionBeforeHiding = null;
 		}
 
-		publishMessage(new Unhid(world, this));
+		if (anyoneCaresAbout(world, Unhid.class))
+			publishMessage(world, new Unhid(world, this));
 		
 		if (hasTrait(Trait.ROCK_SPITTER))
 			spitRock(world);
@@ -415,9 +481,9 @@ public class Creature {
 			return;
 		
 		positionBeforeHiding = position.copy();
-		publishMessage(new Hid(world, this));
-		position.x = -100;
-		position.y = -100;
+		if (anyoneCaresAbout(world, Hid.class))
+			publishMessage(world, new Hid(world, this));
+		world.move(this, -100, -100);
 	}
 
 	public boolean isHidden(){
@@ -427,6 +493,8 @@ public class Creature {
 	public void wander(World world){
 		if (prey != null && (prey.hearts < 1 || prey.isHidden() || huntCounter-- < 1))
 			prey = null;
+		else if (prey != null && !isHidden() && !world.reachable(position, prey.position, movementClass))
+			prey = null; // no way to get there from here
 		else if (prey != null && prey.hearts > 0)
 			moveTo(world, prey);
 
@@ -444,8 +512,15 @@ public class Creature {
 	private void moveTo(World world, Creature target) {
 		int mx = (int)Math.signum(target.position.x - position.x);
 		int my = (int)Math.signum(target.position.y - position.y);
+		boolean sameScreen = position.x / Chunk.WIDTH == target.position.x / Chunk.WIDTH && position.y / Chunk.HEIGHT == target.position.y / Chunk.HEIGHT;
+		
+		Point step = null;
+		if (!sameScreen || !canEnter(world, position.x+mx, position.y+my))
+			step = world.flowField(target, movementClass).nextStep(position);
 		
-		if (canEnter(world.tile(position.x+mx, position.y+my)))
+		if (step != null)
+			moveBy(world, step.x - position.x, step.y - position.y);
+		else if (canEnter(world, position.x+mx, position.y+my))
 			moveBy(world, mx, my);
 		else
 			wanderForReal(world);
@@ -460,7 +535,7 @@ public class Creature {
 		int mx = -(int)Math.signum(target.position.x - position.x);
 		int my = -(int)Math.signum(target.position.y - position.y);
 		
-		if (canEnter(world.tile(position.x+mx, position.y+my)))
+		if (canEnter(world, position.x+mx, position.y+my))
 			moveBy(world, mx, my);
 		else
 			wanderForReal(world);
@@ -472,10 +547,10 @@ public class Creature {
 	}
 	
 	private void wanderForReal(World world) {
-		if (Math.random() < 0.33)
-			lastWanderX = (int)(Math.random() * 3) - 1;
-		if (Math.random() < 0.33)
-			lastWanderY = (int)(Math.random() * 3) - 1;
+		if (random.nextDouble() < 0.33)
+			lastWanderX = (int)(random.nextDouble() * 3) - 1;
+		if (random.nextDouble() < 0.33)
+			lastWanderY = (int)(random.nextDouble() * 3) - 1;
 		
 		moveBy(world, lastWanderX, lastWanderY);
 		
@@ -488,7 +563,7 @@ public class Creature {
 	public void fightNearby(World world){
 		List<Creature> candidates = new ArrayList<Creature>();
 		
-		for (Point p : position.neighbors()){
+		for (Point p : position.neighbors(random)){
 			Creature other = world.creature(p.x, p.y);
 			if (other != null && !isFriendlyTo(other))
 				candidates.add(other);
@@ -497,14 +572,15 @@ public class Creature {
 		if (candidates.size() == 0)
 			wanderForReal(world);
 		else {
-			Creature other = candidates.get((int)(Math.random() * candidates.size()));
+			Creature other = candidates.get((int)(random.nextDouble() * candidates.size()));
 			hunt(other);
 			attack(world, other, "aggressively");
 		}
 	}
 
-	public void recoverHearts(int amount) {
+	public void recoverHearts(World world, int amount) {
 		hearts = Math.min(hearts + amount, maxHearts);
+		world.changed(position.x, position.y);
 	}
 
 	public void loseHearts(World world, Creature attacker, int amount, String specialType, String causeOfDeath) {
@@ -513,19 +589,20 @@ public class Creature {
 		
 		if (amount > 1 && hasTrait(Trait.EXTRA_DEFENSE)){
 			amount--;
-			publishMessage(new BlockSomeDamage(world, attacker, this, rightHand));
+			publishMessage(world, new BlockSomeDamage(world, attacker, this, rightHand));
 		}
 		
 		hearts -= amount;
+		world.changed(position.x, position.y);
 
 		if (specialType != null)
-			publishMessage(new Attacked(world, attacker, this, specialType));
+			publishMessage(world, new Attacked(world, attacker, this, specialType));
 		
 		if (hearts < 1) {
 			this.causeOfDeath = causeOfDeath;
-			publishMessage(new Killed(world, attacker, this));
+			publishMessage(world, new Killed(world, attacker, this));
 		} else if (hasTrait(Trait.SOCIAL))
-			publishMessage(new CallForHelp(world, this, attacker));
+			publishMessage(world, new CallForHelp(world, this, attacker));
 	}
 
 	private Creature prey;
@@ -564,10 +641,15 @@ public class Creature {
 			world.removeItem(position.x, position.y);
 			world.add(leftHand, position.x, position.y);
 			if (leftHand != null)
-				publishMessage(new DroppedWeapon(world, this, leftHand));
-			publishMessage(new EquipedItem(world, this, item));
+				publishMessage(world, new DroppedWeapon(world, this, leftHand));
+			publishMessage(world, new EquipedItem(world, this, item));
 		}
+		if (leftHand != null)
+			leftHand.owner = null;
 		leftHand = item;
+		if (leftHand != null)
+			leftHand.owner = this;
+		updateEffectiveTraits();
 	}
 
 	public void swapRightHand(World world, Item item) {
@@ -575,10 +657,15 @@ public class Creature {
 			world.removeItem(position.x, position.y);
 			world.add(rightHand, position.x, position.y);
 			if (rightHand != null)
-				publishMessage(new DroppedWeapon(world, this, rightHand));
-			publishMessage(new EquipedItem(world, this, item));
+				publishMessage(world, new DroppedWeapon(world, this, rightHand));
+			publishMessage(world, new EquipedItem(world, this, item));
 		}
+		if (rightHand != null)
+			rightHand.owner = null;
 		rightHand = item;
+		if (rightHand != null)
+			rightHand.owner = this;
+		updateEffectiveTraits();
 	}
 	
 	public boolean canSee(Creature other){
@@ -595,14 +682,22 @@ public class Creature {
 	}
 	
 	private RivalAi ai;
+	RivalAi ai() { return ai; }
+	
 	public void registerAiForEvents(RivalAi rivalAi) {
 		ai = rivalAi;
 	}
 	
-	private void publishMessage(Message message){
-		MessageBus.publish(message);
+	private void publishMessage(World world, Message message){
+		world.bus().publish(message);
 		
 		if (ai != null)
 			ai.handle(this, message);
 	}
+	
+	// Moving, hiding and bumping into things happen all the time and hardly anyone cares.
+	// Moves and jumps are asked about once made, so this is where they ended up.
+	private boolean anyoneCaresAbout(World world, Class<? extends Message> type){
+		return world.bus().wants(type, world, this, position.x, position.y) || ai != null && ai.listensFor(type);
+	}
 }
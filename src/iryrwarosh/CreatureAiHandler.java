@@ -1,29 +1,35 @@
 package iryrwarosh;
 
-public class CreatureAiHandler implements Handler {
+public class CreatureAiHandler {
 
-	@Override
-	public void handle(Message message) {
-		if (CallForHelp.class.isAssignableFrom(message.getClass()))
-			handle((CallForHelp)message);
-		
-		if (Attacked.class.isAssignableFrom(message.getClass()))
-			handle((Attacked)message);
+	public void subscribe(MessageBus bus) {
+		bus.subscribe(CallForHelp.class, new Handler<CallForHelp>(){
+			public void handle(CallForHelp message) { CreatureAiHandler.this.handle(message); }
+		});
+		bus.subscribe(Attacked.class, new Handler<Attacked>(){
+			public void handle(Attacked message) { CreatureAiHandler.this.handle(message); }
+		});
 	}
 
 	public void handle(CallForHelp message) {
-		for (Creature c : message.world.creatures()){
+		for (Creature c : message.world.creaturesWithin(message.attacked.position, 12)){
 			if (!c.isFriendlyTo(message.attacked) || c == message.attacked)
 				continue;
 			
 			if (!c.canHear(message.attacked))
 				continue;
 			
+			if (!c.isHidden() && !message.world.reachable(c.position, message.attacker.position, c.movementClass()))
+				continue;
+			
 			c.hunt(message.attacker);
+			message.world.wake(c.position.x, c.position.y);
 		}
 	}
 	
 	public void handle(Attacked message) {
+		message.world.wake(message.attacked.position.x, message.attacked.position.y);
+		
 		if (message.attacked.hasTrait(Trait.HUNTER))
 			message.attacked.hunt(message.attacker);
 	}
@@ -5,11 +5,16 @@ public class DeflectRanged extends Message {
 	public Projectile projectile;
 	
 	public DeflectRanged(World world, Creature creature, Projectile projectile) {
-		super(world, addArticle("The", creature.name()) + " deflected the projectile");
+		super(world);
 		this.creature = creature;
 		this.projectile = projectile;
 	}
 
+	@Override
+	protected String describe() {
+		return addArticle("The", creature.name()) + " deflected the projectile";
+	}
+
 	@Override
 	public boolean involves(Creature player) {
 		return creature == player;
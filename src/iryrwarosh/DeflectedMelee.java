@@ -5,11 +5,16 @@ public class DeflectedMelee extends Message {
 	public Creature attacked;
 	
 	public DeflectedMelee(World world, Creature attacker, Creature attacked){
-		super(world, addArticle("The", attacked.name()) + " deflects the attack.");
+		super(world);
 		this.attacker = attacker;
 		this.attacked = attacked;
 	}
 
+	@Override
+	protected String describe() {
+		return addArticle("The", attacked.name()) + " deflects the attack.";
+	}
+
 	@Override
 	public boolean involves(Creature player) {
 		return attacker == player || attacked == player;
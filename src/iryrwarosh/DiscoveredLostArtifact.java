@@ -5,11 +5,16 @@ public class DiscoveredLostArtifact extends Message {
 	public Item item;
 	
 	public DiscoveredLostArtifact(World world, Creature creature, Item item) {
-		super(world, addArticle("The", creature.name()) + " has discovered a lost treasure: " + item.name());
+		super(world);
 		this.creature = creature;
 		this.item = item;
 	}
 
+	@Override
+	protected String describe() {
+		return addArticle("The", creature.name()) + " has discovered a lost treasure: " + item.name();
+	}
+
 	@Override
 	public boolean involves(Creature player) {
 		return false;
@@ -5,11 +5,16 @@ public class DroppedWeapon extends Message {
 	public Item weapon;
 	
 	public DroppedWeapon(World world, Creature creature, Item weapon){
-		super(world, addArticle("The", creature.name()) + " dropped " + weapon.name());
+		super(world);
 		this.creature = creature;
 		this.weapon = weapon;
 	}
 
+	@Override
+	protected String describe() {
+		return addArticle("The", creature.name()) + " dropped " + weapon.name();
+	}
+
 	@Override
 	public boolean involves(Creature player) {
 		return creature == player;
@@ -5,11 +5,16 @@ public class EquipedItem extends Message {
 	public Item item;
 	
 	public EquipedItem(World world, Creature creature, Item item){
-		super(world, addArticle("The", creature.name()) + " equipped " + item.name());
+		super(world);
 		this.creature = creature;
 		this.item = item;
 	}
 
+	@Override
+	protected String describe() {
+		return addArticle("The", creature.name()) + " equipped " + item.name();
+	}
+
 	@Override
 	public boolean involves(Creature player) {
 		return creature == player;
@@ -5,11 +5,16 @@ public class Evaded extends Message {
 	public Creature evader;
 	
 	public Evaded(World world, Creature attacker, Creature evader){
-		super(world, addArticle("The", evader.name()) + " evaded " + addArticle("the", attacker.name()));
+		super(world);
 		this.attacker = attacker;
 		this.evader = evader;
 	}
 
+	@Override
+	protected String describe() {
+		return addArticle("The", evader.name()) + " evaded " + addArticle("the", attacker.name());
+	}
+
 	@Override
 	public boolean involves(Creature player) {
 		return attacker == player || evader == player;
@@ -20,8 +20,10 @@ public class Factory {
 	private List<Item> minibossLoot;
 	private List<Creature> rivals;
 	private int defaultHearts;
+	private Rng random;
 	
-	public Factory(){
+	public Factory(Rng random){
+		this.random = random;
 		defaultHearts = 15;
 		setMonsterTraits();
 		
@@ -37,7 +39,7 @@ public class Factory {
 		minibossLoot.add(this.bagOfImps());
 		minibossLoot.add(this.magicWand());
 		minibossLoot.add(this.bombs());
-		Collections.shuffle(minibossLoot);
+		Collections.shuffle(minibossLoot, random);
 		
 		rivals = new ArrayList<Creature>();
 		rivals.add(rival("Lame",   0, knife(), bow(), new RivalAi(0.01, 1.0)));
@@ -52,7 +54,69 @@ public class Factory {
 		rivals.add(rival("Tify", 270, spear(), spectacles(), new RivalAi(0.01, 0.5)));
 		rivals.add(rival("Muto", 130, staff(), mutationRing(), new RivalAi(0.01, 0.5)));
 		rivals.add(rival("Al  ", 330, magicCarpet(), null, new RivalAi(0.01, 0.5)));
-		Collections.shuffle(rivals);
+		Collections.shuffle(rivals, random);
+	}
+	
+	// the sagas and handlers every game runs, on the world's own bus
+	public void subscribeSagas(World world){
+		new ItemSpecialsSaga().subscribe(world.bus());
+		new LootSaga().subscribe(world.bus());
+		new ArmosSaga().subscribe(world.bus());
+		new MapExplorationHandler().subscribe(world.bus());
+		new CreatureAiHandler().subscribe(world.bus());
+	}
+	
+	public void populate(World world){
+		for (int i = 0; i < 80; i++)
+			zora(world);
+		
+		for (int i = 0; i < 100; i++)
+			goblin(world);
+
+		for (int i = 0; i < 4; i++)
+			rival(world);
+		
+		for (Tile biome : new Tile[]{ 
+				Tile.GREEN_TREE1, Tile.GREEN_TREE1, Tile.GREEN_TREE1,
+				Tile.BROWN_TREE1, Tile.BROWN_TREE1, Tile.BROWN_TREE1,  
+				Tile.WHITE_TREE1, 
+				Tile.GREEN_ROCK, Tile.GREEN_ROCK, Tile.GREEN_ROCK, 
+				Tile.BROWN_ROCK, Tile.BROWN_ROCK, Tile.BROWN_ROCK, 
+				Tile.WHITE_ROCK,  
+				Tile.GREEN_TREE1, Tile.GREEN_TREE1, Tile.GREEN_TREE1,
+				Tile.BROWN_TREE1, Tile.BROWN_TREE1, Tile.BROWN_TREE1,  
+				Tile.WHITE_TREE1, 
+				Tile.GREEN_ROCK, Tile.GREEN_ROCK, Tile.GREEN_ROCK, 
+				Tile.BROWN_ROCK, Tile.BROWN_ROCK, Tile.BROWN_ROCK, 
+				Tile.WHITE_ROCK, 
+				Tile.DESERT_SAND1, Tile.WATER1 }){
+			for (int i = 0; i < 10; i++)
+				monster(world, biome);
+		}
+
+		for (Point screen : world.map().getDeadEnds()){
+			if (world.map().screen(screen.x, screen.y).defaultWall == Tile.WHITE_WALL){
+				miniboss(world, screen.x, screen.y);
+				world.add(lostArtifact(), screen.x * Chunk.WIDTH + Chunk.WIDTH / 2, screen.y * Chunk.HEIGHT + Chunk.HEIGHT / 2);
+			} else {
+				switch (world.random("spawns").nextInt(5)){
+				case 0: world.addToScreen(evasionPotion(), screen.x, screen.y); break;
+				case 1: world.addToScreen(heartContainer(), screen.x, screen.y); break;
+				default: miniboss(world, screen.x, screen.y); break;
+				}
+			}
+		}
+	}
+	
+	public Creature randomBadGuy(World world){
+		if (random.nextDouble() < 0.25){
+			return goblin(world);
+		} else {
+			Tile[] biomes = { Tile.GREEN_TREE1, Tile.BROWN_TREE1, Tile.WHITE_TREE1, Tile.GREEN_TREE1, Tile.BROWN_TREE1, 
+				Tile.GREEN_ROCK, Tile.BROWN_ROCK, Tile.WHITE_ROCK, Tile.DESERT_SAND1, Tile.WATER1 };
+			Tile biome = biomes[random.nextInt(biomes.length)];
+			return monster(world, biome);
+		}
 	}
 	
 	private void setMonsterTraits(){
@@ -69,7 +133,7 @@ public class Factory {
 				traits.add(Trait.WALKER);
 			}
 			
-			switch ((int)(Math.random() * 4)){
+			switch ((int)(random.nextDouble() * 4)){
 			case 0: traits.add(Trait.POISONOUS); break;
 			case 1: traits.add(Trait.AGGRESSIVE); break;
 			case 2: traits.add(Trait.DOUBLE_ATTACK); break;
@@ -77,7 +141,7 @@ public class Factory {
 			}
 			
 			while (traits.size() < 4){
-				Trait trait = Trait.getRandom();
+				Trait trait = Trait.getRandom(random);
 				if (!traits.contains(trait))
 					traits.add(trait);
 			}
@@ -99,13 +163,13 @@ public class Factory {
 				if (poisonCounter == 0 && hasTrait(Trait.POISONOUS)) {
 					removeTrait(Trait.POISONOUS);
 					if (owner != null)
-						MessageBus.publish(new Note(world, owner, "Your knife is no longer poisonous."));
+						world.bus().publish(new Note(world, owner, "Your knife is no longer poisonous."));
 				}
 			}
 
 			public Screen use(Screen screen, World world, Creature owner){
 				if (owner.rupees() + owner.hearts() <= 1) {
-					MessageBus.publish(new Note(world, owner, "You need more than 1 rupee or heart to poison your knife."));
+					world.bus().publish(new Note(world, owner, "You need more than 1 rupee or heart to poison your knife."));
 					return screen;
 				}
 				
@@ -114,7 +178,7 @@ public class Factory {
 
 				owner.loseRupees(world, 1);
 				poisonCounter += 3;
-				MessageBus.publish(new Note(world, owner, "Your knife is now poisonous for " + poisonCounter + " turns."));
+				world.bus().publish(new Note(world, owner, "Your knife is now poisonous for " + poisonCounter + " turns."));
 				
 				return screen;
 			}
@@ -128,11 +192,11 @@ public class Factory {
 		Item item = new Item("club", ')', Tile.BROWN_ROCK.background(), "Melee weapon with knockback. Can do a circle attack."){
 			public Screen use(Screen screen, World world, Creature owner){
 				if (owner.rupees() + owner.hearts() <= 1) {
-					MessageBus.publish(new Note(world, owner, "You need more than 1 rupee or heart to do a circle attack."));
+					world.bus().publish(new Note(world, owner, "You need more than 1 rupee or heart to do a circle attack."));
 					return screen;
 				}
 				
-				for (Point p : owner.position.neighbors()){
+				for (Point p : owner.position.neighbors(owner.random())){
 					Creature other = world.creature(p.x, p.y);
 					if (other == null)
 						continue;
@@ -187,7 +251,7 @@ public class Factory {
 		Item item = new Item("spear", ')', Tile.BROWN_ROCK.background(), "Long melee weapon that auto-attacks near you. Can be thrown."){
 			public Screen use(Screen screen, World world, Creature owner){
 				if (owner.rupees() + owner.hearts() <= 2) {
-					MessageBus.publish(new Note(world, owner, "You need more than 2 rupees or hearts to throw a spear."));
+					world.bus().publish(new Note(world, owner, "You need more than 2 rupees or hearts to throw a spear."));
 					return screen;
 				}
 
@@ -225,7 +289,7 @@ public class Factory {
 	}
 
 	public Item weapon() {
-		switch ((int)(Math.random() * 5)){
+		switch ((int)(random.nextDouble() * 5)){
 		case 0: return knife();
 		case 1: return club();
 		case 2: return sword();
@@ -238,10 +302,10 @@ public class Factory {
 		char[] glyphs = { 130, 131, 132, 133, 134, 136, 137, 138, 139, 140, 141, 
 				          147, 148, 149, 150, 151, 152, 160, 161, 162, 163 };
 		
-		char glyph = glyphs[(int)(Math.random() * glyphs.length)];
+		char glyph = glyphs[(int)(random.nextDouble() * glyphs.length)];
 		
-		int hue = (int)(Math.random() * 360);
-		int hp = defaultHearts / 2 + (int)(Math.random() * defaultHearts / 2);
+		int hue = (int)(random.nextDouble() * 360);
+		int hp = defaultHearts / 2 + (int)(random.nextDouble() * defaultHearts / 2);
 		
 		List<Trait> traits = new ArrayList<Trait>();
 		traits.add(Trait.WALKER);
@@ -251,7 +315,7 @@ public class Factory {
 		traits.add(Trait.MYSTERIOUS);
 		
 		while (traits.size() < 8){
-			Trait trait = Trait.getRandom();
+			Trait trait = Trait.getRandom(random);
 			if (!traits.contains(trait))
 				traits.add(trait);
 		}
@@ -268,17 +332,17 @@ public class Factory {
 		
 		boss.setIsMiniboss(true);
 		
-		world.addToScreen(boss, sx, sy);
+		if (random.nextDouble() < 0.25)
+			boss.swapLeftHand(null, weapon());
+		if (random.nextDouble() < 0.25)
+			boss.swapRightHand(null, weapon());
 		
-		if (Math.random() < 0.25)
-			boss.swapLeftHand(world, weapon());
-		if (Math.random() < 0.25)
-			boss.swapRightHand(world, weapon());
+		world.addToScreen(boss, sx, sy);
 		
 		if (minibossLoot.size() > 0)
 			boss.setLoot(minibossLoot.remove(0));
 		else {
-			switch ((int)(Math.random() * 4)){
+			switch ((int)(random.nextDouble() * 4)){
 			case 0: boss.setLoot(heartContainer()); break;
 			case 1: boss.setLoot(bigMoney()); break;
 			case 2: boss.setLoot(evasionPotion()); break;
@@ -296,14 +360,14 @@ public class Factory {
 		String[] second = { "spider", "squid", "jellyfish", "bird", "urchin", "demon", "scorpion", "insect", "blob",
 				"evil", "best", "serpent", "monster" };
 		
-		String name = first[(int)(Math.random() * first.length)]
-		            + " " + second[(int)(Math.random() * second.length)];
+		String name = first[(int)(random.nextDouble() * first.length)]
+		            + " " + second[(int)(random.nextDouble() * second.length)];
 		
 		return name;
 	}
 	
 	public Creature goblin(final World world){
-		int hue = 30 + (int)(Math.random() * 90);
+		int hue = 30 + (int)(random.nextDouble() * 90);
 		Creature goblin = new Creature("goblin", 'g', Common.hsv(hue, 50, 50), 3){
 			public void update(World world){
 				super.update(world);
@@ -313,8 +377,8 @@ public class Factory {
 		goblin.addTrait(Trait.WALKER);
 		goblin.addTrait(Trait.HUNTER);
 		
-		world.add(goblin);
-		goblin.swapLeftHand(world, weapon());
+		goblin.swapLeftHand(null, weapon()); // armed first, since it may wait a while for its screen
+		world.addToRandomScreen(goblin);
 		return goblin;
 	}
 	
@@ -333,7 +397,7 @@ public class Factory {
 			candidates.addAll(world.screensOfType(Tile.PINE_TREE1));
 			if (candidates.size() == 0)
 				return null;
-			candidate = candidates.get((int)(Math.random() * candidates.size()));
+			candidate = candidates.get((int)(random.nextDouble() * candidates.size()));
 			break;
 		case BROWN_TREE1:
 			name = "brown forest monster";
@@ -342,7 +406,7 @@ public class Factory {
 			candidates.addAll(world.screensOfType(Tile.BROWN_TREE4));
 			if (candidates.size() == 0)
 				return null;
-			candidate = candidates.get((int)(Math.random() * candidates.size()));
+			candidate = candidates.get((int)(random.nextDouble() * candidates.size()));
 			break;
 		case WHITE_TREE1:
 			name = "white forest monster";
@@ -350,7 +414,7 @@ public class Factory {
 			candidates.addAll(world.screensOfType(Tile.WHITE_TREE1));
 			if (candidates.size() == 0)
 				return null;
-			candidate = candidates.get((int)(Math.random() * candidates.size()));
+			candidate = candidates.get((int)(random.nextDouble() * candidates.size()));
 			break;
 		case GREEN_ROCK:
 			name = "green hill monster";
@@ -358,7 +422,7 @@ public class Factory {
 			candidates.addAll(world.screensOfType(Tile.GREEN_ROCK));
 			if (candidates.size() == 0)
 				return null;
-			candidate = candidates.get((int)(Math.random() * candidates.size()));
+			candidate = candidates.get((int)(random.nextDouble() * candidates.size()));
 			break;
 		case BROWN_ROCK:
 			name = "brown mountain monster";
@@ -366,7 +430,7 @@ public class Factory {
 			candidates.addAll(world.screensOfType(Tile.BROWN_ROCK));
 			if (candidates.size() == 0)
 				return null;
-			candidate = candidates.get((int)(Math.random() * candidates.size()));
+			candidate = candidates.get((int)(random.nextDouble() * candidates.size()));
 			break;
 		case WHITE_ROCK:
 			name = "white mountain monster";
@@ -374,7 +438,7 @@ public class Factory {
 			candidates.addAll(world.screensOfType(Tile.WHITE_ROCK));
 			if (candidates.size() == 0)
 				return null;
-			candidate = candidates.get((int)(Math.random() * candidates.size()));
+			candidate = candidates.get((int)(random.nextDouble() * candidates.size()));
 			break;
 		case DESERT_SAND1:
 			name = "desert monster";
@@ -382,7 +446,7 @@ public class Factory {
 			candidates.addAll(world.screensOfType(Tile.DESERT_SAND1));
 			if (candidates.size() == 0)
 				return null;
-			candidate = candidates.get((int)(Math.random() * candidates.size()));
+			candidate = candidates.get((int)(random.nextDouble() * candidates.size()));
 			break;
 		case WATER1:
 			name = "water monster";
@@ -390,7 +454,7 @@ public class Factory {
 			break;
 		}
 		
-		boolean isBigMonster = Math.random() * 1000 < (monstersCreated - 300);
+		boolean isBigMonster = random.nextDouble() * 1000 < (monstersCreated - 300);
 		
 		if (isBigMonster)
 			name = "giant " + name;
@@ -406,9 +470,9 @@ public class Factory {
 			monster.addTrait(trait);
 		
 		if (isBigMonster){
-			Trait trait = Trait.getRandom();
+			Trait trait = Trait.getRandom(random);
 			while (monster.hasTrait(trait))
-				trait = Trait.getRandom();
+				trait = Trait.getRandom(random);
 			monster.addTrait(trait);
 		}
 		
@@ -436,7 +500,7 @@ public class Factory {
 		zora.addTrait(Trait.HIDER);
 		zora.addTrait(Trait.TERRITORIAL);
 		zora.addTrait(Trait.ROCK_SPITTER);
-		world.add(zora);
+		world.addToRandomScreen(zora);
 		return zora;
 	}
 
@@ -463,7 +527,7 @@ public class Factory {
 		if (item2 != null)
 			rival.swapRightHand(null, item2);
 		
-		if (Math.random() < 0.5)
+		if (random.nextDouble() < 0.5)
 			rival.setLoot(heartContainer());
 		else
 			rival.setLoot(bigMoney());
@@ -488,7 +552,7 @@ public class Factory {
 		Item item = new Item("large shield", '[', AsciiPanel.yellow, -1, "Deflects projectiles. Can be used to scare others nearby."){
 			public Screen use(Screen screen, World world, Creature player) {
 				if (player.rupees() + player.hearts() <= 1){
-					MessageBus.publish(new Note(world, player, "You need more than 1 rupee or heart to intimidate others."));
+					world.bus().publish(new Note(world, player, "You need more than 1 rupee or heart to intimidate others."));
 					return screen;
 				}
 
@@ -505,13 +569,13 @@ public class Factory {
 				
 				switch(number){
 				case 0:
-					MessageBus.publish(new Note(world, player, "You swing wildly but didn't scare anyone away."));
+					world.bus().publish(new Note(world, player, "You swing wildly but didn't scare anyone away."));
 					break;
 				case 1:
-					MessageBus.publish(new Note(world, player, "You swing wildly and scare 1 nearby creature."));
+					world.bus().publish(new Note(world, player, "You swing wildly and scare 1 nearby creature."));
 					break;
 				default:
-					MessageBus.publish(new Note(world, player, "You swing wildly and scare " + number + " nearby creatures."));
+					world.bus().publish(new Note(world, player, "You swing wildly and scare " + number + " nearby creatures."));
 					break;
 				}
 				return screen;
@@ -525,7 +589,7 @@ public class Factory {
 		Item item = new Item("spectacles", '/', Common.hsv(220, 15, 50), "Allows you to see camouflaged creatures. Use to see far away."){
 			public Screen use(Screen screen, World world, Creature player) {
 				if (player.rupees() + player.hearts() <= 1){
-					MessageBus.publish(new Note(world, player, "You need more than 1 rupee or heart to look far away."));
+					world.bus().publish(new Note(world, player, "You need more than 1 rupee or heart to look far away."));
 					return screen;
 				}
 				
@@ -541,7 +605,7 @@ public class Factory {
 		Item item = new Item("bow", ')', Common.hsv(45, 50, 50), "Shoots deady arrows."){
 			public Screen use(Screen screen, World world, Creature owner){
 				if (owner.rupees() + owner.hearts() <= 1){
-					MessageBus.publish(new Note(world, owner, "You need more than 1 rupee or heart to shoot arrows."));
+					world.bus().publish(new Note(world, owner, "You need more than 1 rupee or heart to shoot arrows."));
 					return screen;
 				}
 				
@@ -571,7 +635,7 @@ public class Factory {
 		Item item = new Item("bombs", ')', Common.hsv(220, 75, 75), "Pay 3" + (char)4 + " to place a bomb."){
 			public Screen use(Screen screen, World world, Creature owner){
 				if (owner.rupees() + owner.hearts() <= 3){
-					MessageBus.publish(new Note(world, owner, "You need more than 3 rupees and hearts to place a bomb."));
+					world.bus().publish(new Note(world, owner, "You need more than 3 rupees and hearts to place a bomb."));
 					return screen;
 				}
 				
@@ -631,10 +695,10 @@ public class Factory {
 		Item item = new Item("snorkel", '/', Tile.WATER2.color(), "Allows you to swim. Can be used to swim underwater."){
 			public Screen use(Screen screen, World world, Creature owner){
 				if (owner.rupees() + owner.hearts() <= 1){
-					MessageBus.publish(new Note(world, owner, "You need more than 1 rupee or heart to dive underwater."));
+					world.bus().publish(new Note(world, owner, "You need more than 1 rupee or heart to dive underwater."));
 					return screen;
 				} if (!world.tile(owner.position.x, owner.position.y).isSwimmable()){
-					MessageBus.publish(new Note(world, owner, "You must be on a bridge or water to dive underwater."));
+					world.bus().publish(new Note(world, owner, "You must be on a bridge or water to dive underwater."));
 					return screen;
 				}
 				
@@ -649,7 +713,7 @@ public class Factory {
 		Item item = new Item("first aid kit", '+', Common.hsv(20, 50, 50), "Use to cure poison or recover health."){
 			public Screen use(Screen screen, World world, Creature owner){
 				if (owner.rupees() < 5){
-					MessageBus.publish(new Note(world, owner, "You need at least 5 rupees to cure poison or heal yourself."));
+					world.bus().publish(new Note(world, owner, "You need at least 5 rupees to cure poison or heal yourself."));
 					return screen;
 				}
 				
@@ -658,7 +722,7 @@ public class Factory {
 					owner.loseRupees(world, 5);
 				} else {
 					int amount = Math.min(owner.rupees() / 5, owner.maxHearts() - owner.hearts());
-					owner.recoverHearts(amount);
+					owner.recoverHearts(world, amount);
 					owner.loseRupees(world, amount * 5);
 				}
 				return screen;
@@ -678,7 +742,7 @@ public class Factory {
 			public void update(World world, Creature owner){
 				super.update(world, owner);
 				
-				if (owner != null && Math.random() < 0.1)
+				if (owner != null && owner.random().nextDouble() < 0.1)
 					owner.gainRupees(1);
 			}
 		};
@@ -713,13 +777,13 @@ public class Factory {
 	
 	public Item heartContainer(){
 		Item item = new Item("heart container", 3, AsciiPanel.brightRed, "Increases your max hearts."){
-			public void onCollide(World world, Creature collider){
+			public void onCollide(World world, Creature collider, int x, int y){
 				if (!collider.isHuman())
 					return;
 				
 				collider.increaseMaxHearts(1);
-				collider.recoverHearts(10);
-				world.removeItem(collider.position.x, collider.position.y);
+				collider.recoverHearts(world, 10);
+				world.removeItem(x, y);
 			}
 		};
 		item.collectableValue(15);
@@ -728,11 +792,11 @@ public class Factory {
 	
 	public Item bigMoney(){
 		Item item = new Item("rupees", 4, Common.hsv(210, 25, 90), "Rupees are used for special actions."){
-			public void onCollide(World world, Creature collider){
+			public void onCollide(World world, Creature collider, int x, int y){
 				if (!collider.isHuman())
 					return;
 				
-				world.removeItem(collider.position.x, collider.position.y);
+				world.removeItem(x, y);
 				collider.gainRupees(50);
 			}
 		};
@@ -742,11 +806,11 @@ public class Factory {
 
 	public Item evasionPotion(){
 		Item item = new Item("evasion potion", '!', Common.hsv(90, 33, 66), "Permanently boost your evasion."){
-			public void onCollide(World world, Creature collider){
+			public void onCollide(World world, Creature collider, int x, int y){
 				if (!collider.isHuman())
 					return;
 				
-				world.removeItem(collider.position.x, collider.position.y);
+				world.removeItem(x, y);
 				collider.modifyEvasion(1);
 			}
 		};
@@ -758,17 +822,17 @@ public class Factory {
 		String[] first = { "ancient", "historic", "old", "lost", "antique", "famous", "missing", "forgotten", "stolen" };
 		String[] second = { "heirloom", "artifact", "treasure", "item" };
 		
-		String name = first[(int)(Math.random() * first.length)]
-		            + " " + second[(int)(Math.random() * second.length)];
+		String name = first[(int)(random.nextDouble() * first.length)]
+		            + " " + second[(int)(random.nextDouble() * second.length)];
 		
-		int hue = (int)(Math.random() * 360);
+		int hue = (int)(random.nextDouble() * 360);
 		Item item = new Item(name, '?', Common.hsv(hue, 33, 66), "A " + name + " from the past."){
-			public void onCollide(World world, Creature collider){
+			public void onCollide(World world, Creature collider, int x, int y){
 				if (!collider.isHuman())
 					return;
 				
-				world.removeItem(collider.position.x, collider.position.y);
-				MessageBus.publish(new DiscoveredLostArtifact(world, collider, this));
+				world.removeItem(x, y);
+				world.bus().publish(new DiscoveredLostArtifact(world, collider, this));
 			}
 		};
 		item.collectableValue(10);
@@ -793,7 +857,7 @@ public class Factory {
 		Item item = new Item("dark cloak", '[', Common.hsv(180, 5, 25), +2, "Makes you harder to hit and see. Can be used to sneak."){
 			public Screen use(Screen screen, World world, Creature owner){
 				if (owner.rupees() < 5){
-					MessageBus.publish(new Note(world, owner, "You need at least 5 rupees to sneak."));
+					world.bus().publish(new Note(world, owner, "You need at least 5 rupees to sneak."));
 					return screen;
 				}
 				
@@ -808,7 +872,7 @@ public class Factory {
 		Item item = new Item("bag of imps", '+', Common.hsv(350, 90, 75), "Costs 5" + (char)4 + " to pull an imp out."){
 			public Screen use(Screen previous, World world, Creature owner){
 				if (owner.rupees() + owner.hearts() <= 5){
-					MessageBus.publish(new Note(world, owner, "You need more than 5 rupees and hearts to summon an imp."));
+					world.bus().publish(new Note(world, owner, "You need more than 5 rupees and hearts to summon an imp."));
 					return previous;
 				}
 				
@@ -851,9 +915,9 @@ public class Factory {
 		imp.addTrait(Trait.HUNTER);
 		imp.addTrait(Trait.FLIER);
 		imp.addTrait(Trait.REGENERATES);
-		world.add(imp);
 		Point dir = master.lastMovedDirection();
 		imp.position = master.position.plus(dir.x, dir.y).plus(dir.x, dir.y);
+		world.add(imp);
 	}
 	
 	public Item magicWand() {
@@ -883,7 +947,7 @@ public class Factory {
 			public void update(World world, Creature owner){
 				super.update(null, owner);
 				
-				if (owner != null && Math.random() < 0.005)
+				if (owner != null && owner.random().nextDouble() < 0.005)
 					mutateSelf(world, owner);
 			}
 		};
@@ -900,12 +964,12 @@ public class Factory {
 		
 		int tries = 0;
 		while (tries++ < 100){
-			Trait trait = traits[(int)(Math.random() * traits.length)];
+			Trait trait = traits[self.random().nextInt(traits.length)];
 			if (self.hasTrait(trait))
 				continue;
 			
 			self.addTrait(trait);
-			MessageBus.publish(new Note(null, self, "You have gained the trait \"" + trait.description() + "\""));
+			world.bus().publish(new Note(null, self, "You have gained the trait \"" + trait.description() + "\""));
 			self.loseRupees(world, 10);
 			break;
 		}
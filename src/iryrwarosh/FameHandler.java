@@ -5,13 +5,42 @@ import java.util.Comparator;
 import java.util.Hashtable;
 import java.util.List;
 
-public class FameHandler implements Handler {
+public class FameHandler {
 	private Hashtable<Creature, Integer> fame;
+	private MessageBus bus;
+	
+	private Handler<Killed> onKilled = new Handler<Killed>(){
+		public void handle(Killed message) { FameHandler.this.handle(message); }
+	};
+	private Handler<ExploredNewLocation> onExploredNewLocation = new Handler<ExploredNewLocation>(){
+		public void handle(ExploredNewLocation message) { FameHandler.this.handle(message); }
+	};
+	private Handler<ExploredNewBiome> onExploredNewBiome = new Handler<ExploredNewBiome>(){
+		public void handle(ExploredNewBiome message) { FameHandler.this.handle(message); }
+	};
+	private Handler<DiscoveredLostArtifact> onDiscoveredLostArtifact = new Handler<DiscoveredLostArtifact>(){
+		public void handle(DiscoveredLostArtifact message) { FameHandler.this.handle(message); }
+	};
 	
 	public FameHandler(){
 		fame = new Hashtable<Creature, Integer>();
 	}
 	
+	public void subscribe(MessageBus bus){
+		this.bus = bus;
+		bus.subscribe(Killed.class, onKilled);
+		bus.subscribe(ExploredNewLocation.class, onExploredNewLocation);
+		bus.subscribe(ExploredNewBiome.class, onExploredNewBiome);
+		bus.subscribe(DiscoveredLostArtifact.class, onDiscoveredLostArtifact);
+	}
+	
+	public void unsubscribe(){
+		bus.unsubscribe(onKilled);
+		bus.unsubscribe(onExploredNewLocation);
+		bus.unsubscribe(onExploredNewBiome);
+		bus.unsubscribe(onDiscoveredLostArtifact);
+	}
+	
 	public List<Creature> getFamousPeople(){
 		List<Creature> list = Collections.list(fame.keys());
 		
@@ -32,21 +61,6 @@ public class FameHandler implements Handler {
 			return 0;
 	}
 	
-	
-	@Override
-	public void handle(Message message) {
-		if (Killed.class.isAssignableFrom(message.getClass()))
-			handle((Killed)message);
-		
-		if (ExploredNewLocation.class.isAssignableFrom(message.getClass()))
-			handle((ExploredNewLocation)message);
-		
-		if (ExploredNewBiome.class.isAssignableFrom(message.getClass()))
-			handle((ExploredNewBiome)message);
-		
-		if (DiscoveredLostArtifact.class.isAssignableFrom(message.getClass()))
-			handle((DiscoveredLostArtifact)message); 
-	}
 
 	private void handle(Killed message){
 		if (!message.attacker.isHuman())
@@ -88,6 +102,6 @@ public class FameHandler implements Handler {
 			fame.put(creature, amount);
 		
 		if (string != null)
-			MessageBus.publish(new GainedFame(null, creature, string));
+			bus.publish(new GainedFame(null, creature, string));
 	}
 }
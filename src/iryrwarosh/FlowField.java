@@ -0,0 +1,96 @@
+package iryrwarosh;
+
+// How many steps everything within RANGE is from one creature, for everyone who moves the same way,
+// so any number of hunters can chase it for the cost of a single search. Every step costs the same
+// so a breadth first search gives the same answer Dijkstra would. It's only redone once the target
+// has moved to another screen; closer in, hunters can see where it is anyway.
+public class FlowField {
+	public static final int RANGE = 40;
+	
+	private int movementClass;
+	private int width;
+	private int height;
+	private ScreenGrid distance;
+	private ScreenGrid searched;
+	private int search;
+	private int[] queue = new int[256];
+	private int screenX = -1;
+	private int screenY = -1;
+
+	public FlowField(int movementClass, int width, int height){
+		this.movementClass = movementClass;
+		this.width = width;
+		this.height = height;
+		this.distance = new ScreenGrid(width, height);
+		this.searched = new ScreenGrid(width, height);
+	}
+
+	void refresh(World world, Point target){
+		if (target.x < 0 || target.y < 0 || target.x >= width || target.y >= height)
+			return;
+
+		if (target.x / Chunk.WIDTH == screenX && target.y / Chunk.HEIGHT == screenY)
+			return;
+
+		screenX = target.x / Chunk.WIDTH;
+		screenY = target.y / Chunk.HEIGHT;
+
+		search++;
+		distance.clear();
+		searched.clear();
+		int head = 0;
+		int tail = 0;
+		distance.set(target.x * height + target.y, 0);
+		searched.set(target.x * height + target.y, search);
+		queue[tail++] = target.x * height + target.y;
+
+		while (head < tail){
+			int current = queue[head++];
+			int cx = current / height;
+			int cy = current % height;
+			
+			int steps = distance.get(current);
+			if (steps == RANGE)
+				continue;
+
+			for (int x = Math.max(0, cx - 1); x <= Math.min(width - 1, cx + 1); x++)
+			for (int y = Math.max(0, cy - 1); y <= Math.min(height - 1, cy + 1); y++){
+				int index = x * height + y;
+				if (searched.get(index) == search || !world.isPassable(movementClass, x, y))
+					continue;
+
+				distance.set(index, steps + 1);
+				searched.set(index, search);
+				if (tail == queue.length)
+					queue = ScreenGrid.grow(queue);
+				queue[tail++] = index;
+			}
+		}
+	}
+
+	void invalidate(){
+		screenX = -1;
+		screenY = -1;
+	}
+
+	// The neighboring tile that's closest to the target, or null if none of them are any closer.
+	public Point nextStep(Point from){
+		if (from.x < 0 || from.y < 0 || from.x >= width || from.y >= height)
+			return null;
+
+		int best = Integer.MAX_VALUE;
+		if (searched.get(from.x * height + from.y) == search)
+			best = distance.get(from.x * height + from.y);
+
+		Point next = null;
+		for (int x = Math.max(0, from.x - 1); x <= Math.min(width - 1, from.x + 1); x++)
+		for (int y = Math.max(0, from.y - 1); y <= Math.min(height - 1, from.y + 1); y++){
+			int d = distance.get(x * height + y);
+			if (searched.get(x * height + y) == search && d < best){
+				best = d;
+				next = new Point(x, y);
+			}
+		}
+		return next;
+	}
+}
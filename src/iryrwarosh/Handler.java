@@ -1,6 +1,6 @@
 package iryrwarosh;
 
-public interface Handler {
+public interface Handler<T extends Message> {
 
-	void handle(Message message);
+	void handle(T message);
 }
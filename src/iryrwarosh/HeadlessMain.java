@@ -0,0 +1,123 @@
+package iryrwarosh;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.Arrays;
+
+// Runs the simulation without a window and reports how fast turns are.
+// usage: HeadlessMain [turns] [seed] [random|idle]
+public class HeadlessMain {
+	private int turns;
+	private long seed;
+	private boolean randomPolicy;
+
+	private World world;
+	private Factory factory;
+	private Creature player;
+	private Rng input;
+
+	public HeadlessMain(int turns, long seed, boolean randomPolicy){
+		this.turns = turns;
+		this.seed = seed;
+		this.randomPolicy = randomPolicy;
+	}
+
+	public World world() { return world; }
+
+	public Creature player() { return player; }
+
+	public void newGame(){
+		Rng random = new Rng(seed);
+		factory = new Factory(random.split("factory"));
+		input = random.split("input");
+		world = new Worldgen(80 / 3, 24 / 3, random.split("worldgen")).build();
+
+		factory.subscribeSagas(world);
+		world.bus().subscribe(Killed.class, new Handler<Killed>(){
+			public void handle(Killed message) {
+				factory.randomBadGuy(world);
+			}
+		});
+		world.useActivityZones(true);
+
+		player = factory.player(world);
+		player.swapLeftHand(world, factory.sword());
+		player.swapRightHand(world, factory.shield());
+
+		factory.populate(world);
+
+		world.update();
+		world.bus().publish(new WorldCreated(world, player, "The world has been created."));
+	}
+
+	public void playTurn(){
+		if (player.hearts() > 0 && randomPolicy)
+			player.moveBy(world, input.nextInt(3) - 1, input.nextInt(3) - 1);
+
+		world.update();
+	}
+
+	public void run(){
+		long startedAt = System.nanoTime();
+		newGame();
+		long worldgenNanos = System.nanoTime() - startedAt;
+
+		long[] latencies = new long[turns];
+		long allocatedBefore = allocatedBytes();
+		startedAt = System.nanoTime();
+
+		for (int i = 0; i < turns; i++){
+			long turnStartedAt = System.nanoTime();
+			playTurn();
+			latencies[i] = System.nanoTime() - turnStartedAt;
+		}
+
+		long elapsed = System.nanoTime() - startedAt;
+		long allocated = allocatedBytes() - allocatedBefore;
+		Arrays.sort(latencies);
+
+		System.out.println(String.format("seed %d, %d turns, %d creatures left, player %s",
+				seed, turns, world.creatures().size(), player.hearts() > 0 ? "alive" : "dead"));
+		System.out.println(String.format("worldgen     %10.2f ms", worldgenNanos / 1e6));
+		System.out.println(String.format("turns/sec    %10.1f", turns / (elapsed / 1e9)));
+		System.out.println(String.format("p50 turn     %10.3f ms", percentile(latencies, 0.50) / 1e6));
+		System.out.println(String.format("p99 turn     %10.3f ms", percentile(latencies, 0.99) / 1e6));
+		if (allocated >= 0)
+			System.out.println(String.format("allocation   %10.2f MB/s", allocated / (elapsed / 1e9) / (1024 * 1024)));
+		else
+			System.out.println("allocation          n/a");
+		System.out.println("messages handed out, by kind");
+		System.out.print(world.bus().stageReport());
+	}
+
+	private long percentile(long[] sorted, double fraction){
+		if (sorted.length == 0)
+			return 0;
+
+		return sorted[Math.min(sorted.length - 1, (int)(sorted.length * fraction))];
+	}
+
+	// bytes allocated by all live threads, or -1 when the JVM can't tell us
+	private long allocatedBytes(){
+		ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+
+		if (!(threads instanceof com.sun.management.ThreadMXBean))
+			return -1;
+
+		long total = 0;
+		for (long bytes : ((com.sun.management.ThreadMXBean)threads).getThreadAllocatedBytes(threads.getAllThreadIds()))
+			if (bytes > 0)
+				total += bytes;
+		return total;
+	}
+
+	public static void main(String[] args) {
+		int turns = args.length > 0 ? Integer.parseInt(args[0]) : 1000;
+		long seed = args.length > 1 ? Long.parseLong(args[1]) : System.nanoTime();
+		boolean randomPolicy = args.length > 2 ? !args[2].equals("idle") : true;
+
+		System.setProperty("java.awt.headless", "true");
+		new HeadlessMain(turns, seed, randomPolicy).run();
+		System.exit(0);
+	}
+}
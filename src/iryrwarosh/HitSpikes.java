@@ -5,11 +5,16 @@ public class HitSpikes extends Message {
 	public Creature attacked;
 	
 	public HitSpikes(World world, Creature attacker, Creature attacked){
-		super(world, addArticle("The", attacker.name()) + " bumped into " + addArticle("the", attacked.name()) + "'s spikes");
+		super(world);
 		this.attacker = attacker;
 		this.attacked = attacked;
 	}
 
+	@Override
+	protected String describe() {
+		return addArticle("The", attacker.name()) + " bumped into " + addArticle("the", attacked.name()) + "'s spikes";
+	}
+
 	@Override
 	public boolean involves(Creature player) {
 		return attacker == player || attacked == player;
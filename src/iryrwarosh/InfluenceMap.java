@@ -0,0 +1,255 @@
+package iryrwarosh;
+
+import java.util.Map;
+
+// Threat from creatures and attraction from items, shared by everyone who moves the same way.
+// Each layer remembers which screens are out of date and only those get rebuilt, and only
+// when someone standing nearby asks.
+public class InfluenceMap {
+	public static final int REACH = 15;
+	// how far World.creaturesNear and itemsNear look
+	public static final int SIGHT = 9;
+	private static final Trait[] SCARY_TRAITS = { Trait.POISONOUS, Trait.AGGRESSIVE, Trait.REACH_ATTACK,
+		Trait.DOUBLE_ATTACK, Trait.DOUBLE_MOVE, Trait.HUNTER };
+
+	private int movementClass;
+	private int width;
+	private int height;
+	private Layer threat;
+	private Layer attraction;
+
+	private ScreenGrid visited;
+	private int generation;
+	private int[] queue = new int[256];
+
+	private static class Layer {
+		ScreenGrid values;
+		boolean[][] dirty;
+		int[][] rebuilding;
+		int rebuild;
+
+		Layer(int width, int height){
+			values = new ScreenGrid(width, height);
+			dirty = new boolean[width / Chunk.WIDTH][height / Chunk.HEIGHT];
+			rebuilding = new int[width / Chunk.WIDTH][height / Chunk.HEIGHT];
+
+			for (int sx = 0; sx < dirty.length; sx++)
+			for (int sy = 0; sy < dirty[0].length; sy++)
+				dirty[sx][sy] = true;
+		}
+
+		void markDirty(int x, int y, int reach){
+			if (reach < 1)
+				return;
+
+			int left = Math.max(0, (x - reach + 1) / Chunk.WIDTH);
+			int right = Math.min(dirty.length - 1, Math.max(0, x + reach - 1) / Chunk.WIDTH);
+			int top = Math.max(0, (y - reach + 1) / Chunk.HEIGHT);
+			int bottom = Math.min(dirty[0].length - 1, Math.max(0, y + reach - 1) / Chunk.HEIGHT);
+
+			for (int sx = left; sx <= right; sx++)
+			for (int sy = top; sy <= bottom; sy++)
+				dirty[sx][sy] = true;
+		}
+
+		boolean isRebuilding(int x, int y){
+			return rebuilding[x / Chunk.WIDTH][y / Chunk.HEIGHT] == rebuild;
+		}
+
+		boolean reachesRebuilding(int x, int y, int reach){
+			int left = Math.max(0, (x - reach + 1) / Chunk.WIDTH);
+			int right = Math.min(dirty.length - 1, Math.max(0, x + reach - 1) / Chunk.WIDTH);
+			int top = Math.max(0, (y - reach + 1) / Chunk.HEIGHT);
+			int bottom = Math.min(dirty[0].length - 1, Math.max(0, y + reach - 1) / Chunk.HEIGHT);
+
+			for (int sx = left; sx <= right; sx++)
+			for (int sy = top; sy <= bottom; sy++)
+				if (rebuilding[sx][sy] == rebuild)
+					return true;
+			return false;
+		}
+	}
+
+	public InfluenceMap(int movementClass, int width, int height){
+		this.movementClass = movementClass;
+		this.width = width;
+		this.height = height;
+		this.threat = new Layer(width, height);
+		this.attraction = new Layer(width, height);
+		this.visited = new ScreenGrid(width, height);
+	}
+
+	public int threat(int x, int y){
+		return threat.values.get(x * height + y);
+	}
+
+	public int attraction(int x, int y){
+		return attraction.values.get(x * height + y);
+	}
+
+	int value(int index){
+		return threat.values.get(index) + attraction.values.get(index);
+	}
+
+	// Camouflaged creatures aren't part of the shared layer since not everyone can see them,
+	// and humans are left out since what they're worth depends on who's looking.
+	public static boolean isShared(Creature creature){
+		return !creature.isHuman() && !creature.hasTrait(Trait.CAMOUFLAGED);
+	}
+
+	public static int scaryTraits(Creature creature){
+		int count = 0;
+		for (Trait trait : SCARY_TRAITS)
+			if (creature.showsTrait(trait))
+				count++;
+		return count;
+	}
+
+	public static int threatAmount(Creature creature){
+		return -1 - scaryTraits(creature);
+	}
+
+	public static int threatRadius(Creature creature){
+		return 2 + scaryTraits(creature);
+	}
+
+	// how far from the creature its threat is felt at all
+	public static int threatReach(Creature creature){
+		return Math.min(-threatAmount(creature), threatRadius(creature));
+	}
+
+	public static int attractionAmount(Item item){
+		return Math.min(item.collectableValue(), REACH);
+	}
+
+	static void creatureChanged(InfluenceMap[] maps, Creature creature, int x, int y){
+		if (!isShared(creature))
+			return;
+
+		int reach = threatReach(creature);
+		for (InfluenceMap map : maps)
+			if (map != null)
+				map.threat.markDirty(x, y, reach);
+	}
+
+	static void itemChanged(InfluenceMap[] maps, Item item, int x, int y){
+		int reach = attractionAmount(item);
+		for (InfluenceMap map : maps)
+			if (map != null)
+				map.attraction.markDirty(x, y, reach);
+	}
+
+	static void tileChanged(InfluenceMap[] maps, int x, int y){
+		for (InfluenceMap map : maps){
+			if (map != null){
+				map.threat.markDirty(x, y, REACH);
+				map.attraction.markDirty(x, y, REACH);
+			}
+		}
+	}
+
+	// Brings the screens up to date wherever something seen from (x, y) could reach. Does nothing,
+	// and so only reads, when they already are.
+	void refreshAround(World world, int x, int y){
+		refresh(threat, world, x, y);
+		refresh(attraction, world, x, y);
+	}
+
+	private void refresh(Layer layer, World world, int x, int y){
+		int reach = SIGHT + REACH - 1;
+		int left = Math.max(0, (x - reach) / Chunk.WIDTH);
+		int right = Math.min(layer.dirty.length - 1, Math.max(0, x + reach) / Chunk.WIDTH);
+		int top = Math.max(0, (y - reach) / Chunk.HEIGHT);
+		int bottom = Math.min(layer.dirty[0].length - 1, Math.max(0, y + reach) / Chunk.HEIGHT);
+
+		boolean anyDirty = false;
+		for (int sx = left; sx <= right; sx++)
+		for (int sy = top; sy <= bottom; sy++)
+			anyDirty |= layer.dirty[sx][sy];
+
+		if (!anyDirty)
+			return;
+
+		layer.rebuild++;
+		for (int sx = left; sx <= right; sx++)
+		for (int sy = top; sy <= bottom; sy++){
+			if (!layer.dirty[sx][sy])
+				continue;
+
+			layer.dirty[sx][sy] = false;
+			layer.rebuilding[sx][sy] = layer.rebuild;
+			layer.values.clearScreen(sx, sy);
+		}
+		visited.clear();
+
+		// anything that far away could reach into a rebuilt screen
+		int reachX = (REACH - 2) / Chunk.WIDTH + 1;
+		int reachY = (REACH - 2) / Chunk.HEIGHT + 1;
+
+		for (int sx = Math.max(0, left - reachX); sx <= Math.min(layer.dirty.length - 1, right + reachX); sx++)
+		for (int sy = Math.max(0, top - reachY); sy <= Math.min(layer.dirty[0].length - 1, bottom + reachY); sy++){
+			if (layer == threat){
+				for (Creature creature : world.screenOccupants(sx, sy)){
+					if (isShared(creature))
+						flood(layer, world, creature.position.x, creature.position.y,
+								threatAmount(creature), threatRadius(creature));
+				}
+			} else {
+				Map<Integer,Item> items = world.screenItems(sx, sy);
+				if (items == null)
+					continue;
+
+				for (Map.Entry<Integer,Item> entry : items.entrySet()){
+					int amount = attractionAmount(entry.getValue());
+					flood(layer, world, entry.getKey() >> 16, entry.getKey() & 0xFFFF, amount, amount);
+				}
+			}
+		}
+	}
+
+	private void flood(Layer layer, World world, int startX, int startY, int amount, int maxDistance){
+		if (amount == 0 || startX < 0 || startY < 0 || startX >= width || startY >= height)
+			return;
+
+		if (!layer.reachesRebuilding(startX, startY, Math.min(Math.abs(amount), maxDistance)))
+			return;
+
+		int step = amount > 0 ? -1 : 1;
+
+		generation++;
+		int head = 0;
+		int tail = 0;
+		queue[tail++] = startX * height + startY;
+		visited.set(queue[0], generation);
+
+		while (amount != 0 && head < tail){
+			int levelEnd = tail;
+			while (head < levelEnd){
+				int current = queue[head++];
+				int cx = current / height;
+				int cy = current % height;
+
+				if (Math.max(Math.abs(cx - startX), Math.abs(cy - startY)) >= maxDistance)
+					continue;
+
+				if (layer.isRebuilding(cx, cy))
+					layer.values.add(current, amount);
+
+				for (int x = cx - 1; x <= cx + 1; x++)
+				for (int y = cy - 1; y <= cy + 1; y++){
+					if (!world.isPassable(movementClass, x, y))
+						continue;
+
+					int index = x * height + y;
+					if (visited.get(index) != generation){
+						visited.set(index, generation);
+						if (tail == queue.length)
+							queue = ScreenGrid.grow(queue);
+						queue[tail++] = index;
+					}
+				}
+			}
+			amount += step;
+		}
+	}
+}
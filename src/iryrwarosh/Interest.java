@@ -0,0 +1,12 @@
+package iryrwarosh;
+
+// Which creatures, or which places, a subscriber does anything about. Before making a message about
+// some creature, a publisher can ask the bus whether anyone's interest covers it, and not bother if
+// nobody's does. The place is where the creature is by then, such as where it moved to.
+public interface Interest {
+	Interest EVERYONE = new Interest(){
+		public boolean covers(World world, Creature creature, int x, int y) { return true; }
+	};
+
+	boolean covers(World world, Creature creature, int x, int y);
+}
@@ -28,12 +28,32 @@ public class Item {
 	public String description() { return description; }
 
 	private List<Trait> traits;
-	public void addTrait(Trait trait) { traits.add(trait); }
+	private long traitBits;
+	long traitBits() { return traitBits; }
 	
-	public void removeTrait(Trait trait) { traits.remove(trait); }
+	Creature owner;
+	
+	public void addTrait(Trait trait) { 
+		traits.add(trait);
+		updateTraitBits();
+	}
+	
+	public void removeTrait(Trait trait) { 
+		traits.remove(trait);
+		updateTraitBits();
+	}
 	
 	public boolean hasTrait(Trait trait) {
-		return traits.contains(trait);
+		return (traitBits & trait.bit()) != 0;
+	}
+	
+	private void updateTraitBits(){
+		traitBits = 0;
+		for (Trait trait : traits)
+			traitBits |= trait.bit();
+		
+		if (owner != null)
+			owner.updateEffectiveTraits();
 	}
 	
 	private int evasionModifier;
@@ -56,7 +76,8 @@ public class Item {
 		
 	}
 	
-	public void onCollide(World world, Creature colider){
+	// x and y are where this is lying, which may not be where the colider is by now
+	public void onCollide(World world, Creature colider, int x, int y){
 		
 	}
 
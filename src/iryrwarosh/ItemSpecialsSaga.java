@@ -1,16 +1,30 @@
 package iryrwarosh;
 
-public class ItemSpecialsSaga implements Handler {
-	@Override
-	public void handle(Message message) {
-		if (Attacked.class.isAssignableFrom(message.getClass()))
-			onAttacked((Attacked)message);
-		
-		if (Evaded.class.isAssignableFrom(message.getClass()))
-			onEvaded((Evaded)message);
-		
-		if (Moved.class.isAssignableFrom(message.getClass()))
-			onMoved((Moved)message);
+public class ItemSpecialsSaga {
+	public void subscribe(MessageBus bus) {
+		bus.subscribe(Attacked.class, new Handler<Attacked>(){
+			public void handle(Attacked message) { onAttacked(message); }
+		});
+		bus.subscribe(Evaded.class, new Handler<Evaded>(){
+			public void handle(Evaded message) { onEvaded(message); }
+		});
+		Interest nextToReach = new Interest(){
+			public boolean covers(World world, Creature creature, int x, int y) { return isNextToReach(world, creature, x, y); }
+		};
+		bus.subscribe(Moved.class, nextToReach, new Handler<Moved>(){
+			public void handle(Moved message) { onMoved(message); }
+		});
+	}
+
+	// Most moves end nowhere near a long reach, so they needn't be made into messages at all.
+	private boolean isNextToReach(World world, Creature creature, int x, int y) {
+		for (int ox = -1; ox < 2; ox++)
+		for (int oy = -1; oy < 2; oy++){
+			Creature other = world.creature(x + ox, y + oy);
+			if (other != null && other != creature && other.hasTrait(Trait.REACH_ATTACK))
+				return true;
+		}
+		return false;
 	}
 
 	private void onMoved(Moved m) {
@@ -18,11 +32,16 @@ public class ItemSpecialsSaga implements Handler {
 	}
 
 	private void checkDistantAttacks(Moved m) {
-		for (Point p : m.creature.position.neighbors()){
+		if (m.creature.hearts() < 1 || !isNextToReach(m.world, m.creature, m.to.x, m.to.y))
+			return; // moves that something else wanted made still get here
+		
+		// whoever was next to where it stepped, even if it has gone on since
+		for (Point p : m.to.neighbors(m.creature.random())){
 			Creature other = m.world.creature(p.x, p.y);
 			if (other != null 
+					&& other != m.creature
 					&& !m.creature.isFriendlyTo(other) 
-					&& other.hasTrait(Trait.REACH_ATTACK) && Math.random() < 0.75){
+					&& other.hasTrait(Trait.REACH_ATTACK) && other.random().nextDouble() < 0.75){
 				other.attack(m.world, m.creature, other.isPlayer() ? "with your long reach" : "with it's long reach");
 			}
 		}
@@ -33,7 +52,7 @@ public class ItemSpecialsSaga implements Handler {
 	}
 
 	private void checkEvadeAttack(Evaded m) {
-		if (m.evader.hasTrait(Trait.EVADE_ATTACK) && Math.random() < 0.75){
+		if (m.evader.hasTrait(Trait.EVADE_ATTACK) && m.evader.random().nextDouble() < 0.75){
 			m.evader.attack(m.world, m.attacker, "while evading");
 		}
 	}
@@ -44,21 +63,21 @@ public class ItemSpecialsSaga implements Handler {
 	}
 
 	private void checkCounterAttack(Attacked m) {
-		if (m.attacked.hasTrait(Trait.COUNTER_ATTACK) && m.attacked.hearts() > 0 && Math.random() < 0.75) {
+		if (m.attacked.hasTrait(Trait.COUNTER_ATTACK) && m.attacked.hearts() > 0 && m.attacked.random().nextDouble() < 0.75) {
 			m.attacked.attack(m.world, m.attacker, "with a counter attack");
 		}
 	}
 
 	private void checkKnockbackAttack(Attacked m) {
 		if (m.attacker.hasTrait(Trait.KNOCKBACK)){
-			int dx = m.attacked.position.x - m.attacker.position.x;
-			int dy = m.attacked.position.y - m.attacker.position.y;
+			// just the direction, since a reach attack can land after the attacked has moved on
+			int dx = Integer.signum(m.attacked.position.x - m.attacker.position.x);
+			int dy = Integer.signum(m.attacked.position.y - m.attacker.position.y);
 			
 			for (int i = 0; i < 2; i++) {
-				if (m.attacked.canEnter(m.world.tile(m.attacked.position.x+dx, m.attacked.position.y+dy))
+				if (m.attacked.canEnter(m.world, m.attacked.position.x+dx, m.attacked.position.y+dy)
 						&& m.world.creature(m.attacked.position.x+dx, m.attacked.position.y+dy) == null){
-					m.attacked.position.x += dx;
-					m.attacked.position.y += dy;
+					m.world.move(m.attacked, m.attacked.position.x+dx, m.attacked.position.y+dy);
 				}
 			}
 		}
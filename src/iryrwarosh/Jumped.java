@@ -2,10 +2,20 @@ package iryrwarosh;
 
 public class Jumped extends Message {
 	public Creature creature;
+	// where it was and where it got to, since it may have moved on again before this is handled
+	public Point from;
+	public Point to;
 	
-	public Jumped(World world, Creature creature){
-		super(world, "The " + creature.name() + " jumped");
+	public Jumped(World world, Creature creature, Point from, Point to){
+		super(world);
 		this.creature = creature;
+		this.from = from;
+		this.to = to;
+	}
+
+	@Override
+	protected String describe() {
+		return "The " + creature.name() + " jumped";
 	}
 
 	@Override
@@ -5,11 +5,16 @@ public class Killed extends Message {
 	public Creature attacked;
 	
 	public Killed(World world, Creature attacker, Creature attacked){
-		super(world, addArticle("The", attacker.name()) + " killed " + addArticle("the", attacked.name()));
+		super(world);
 		this.attacker = attacker;
 		this.attacked = attacked;
 	}
 
+	@Override
+	protected String describe() {
+		return addArticle("The", attacker.name()) + " killed " + addArticle("the", attacked.name());
+	}
+
 	@Override
 	public boolean involves(Creature player) {
 		return attacker == player || attacked == player;
@@ -2,30 +2,37 @@ package iryrwarosh;
 
 import asciiPanel.AsciiPanel;
 
-public class LootSaga implements Handler {
+public class LootSaga {
 
-	@Override
-	public void handle(Message message) {
-		if (Killed.class.isAssignableFrom(message.getClass()))
-			handle((Killed)message);
-		
-		if (Moved.class.isAssignableFrom(message.getClass()))
-			handle((Moved)message);
-		
-		if (Jumped.class.isAssignableFrom(message.getClass()))
-			handle((Jumped)message);
+	public void subscribe(MessageBus bus) {
+		bus.subscribe(Killed.class, new Handler<Killed>(){
+			public void handle(Killed message) { LootSaga.this.handle(message); }
+		});
+		// only moves and jumps that end on something
+		Interest onAnItem = new Interest(){
+			public boolean covers(World world, Creature creature, int x, int y) { return world.item(x, y) != null; }
+		};
+		bus.subscribe(Moved.class, onAnItem, new Handler<Moved>(){
+			public void handle(Moved message) { LootSaga.this.handle(message); }
+		});
+		bus.subscribe(Jumped.class, onAnItem, new Handler<Jumped>(){
+			public void handle(Jumped message) { LootSaga.this.handle(message); }
+		});
 	}
 	
 	public void handle(Moved message){
-		Item item = message.world.item(message.creature.position.x, message.creature.position.y);
-		if (item != null)
-			item.onCollide(message.world, message.creature);
+		pickUp(message.world, message.creature, message.to);
 	}
 	
 	public void handle(Jumped message){
-		Item item = message.world.item(message.creature.position.x, message.creature.position.y);
-		if (item != null)
-			item.onCollide(message.world, message.creature);
+		pickUp(message.world, message.creature, message.to);
+	}
+	
+	// what's where it stepped, even if it has gone on since
+	private void pickUp(World world, Creature creature, Point where){
+		Item item = world.item(where.x, where.y);
+		if (item != null && creature.hearts() > 0)
+			item.onCollide(world, creature, where.x, where.y);
 	}
 	
 	public void handle(Killed message){
@@ -40,7 +47,7 @@ public class LootSaga implements Handler {
 	}
 	
 	private void dropRandomLoot(World world, Point point){
-		switch ((int)(Math.random() * 4)){
+		switch (world.random("loot").nextInt(4)){
 		case 0: world.add(heart(), point.x, point.y); break;
 		case 1: world.add(heart(), point.x, point.y); break;
 		case 2: world.add(rupees_1(), point.x, point.y); break;
@@ -50,9 +57,9 @@ public class LootSaga implements Handler {
 	
 	public Item heart(){
 		Item item = new Item("heart", 3, AsciiPanel.red, "A heart that refills health."){
-			public void onCollide(World world, Creature collider){
-				world.removeItem(collider.position.x, collider.position.y);
-				collider.recoverHearts(1);
+			public void onCollide(World world, Creature collider, int x, int y){
+				world.removeItem(x, y);
+				collider.recoverHearts(world, 1);
 			}
 		};
 		item.collectableValue(5);
@@ -61,8 +68,8 @@ public class LootSaga implements Handler {
 	
 	public Item rupees_1(){
 		Item item = new Item("rupees", 4, Common.hsv(60, 50, 75), "Rupees used for special actions."){
-			public void onCollide(World world, Creature collider){
-				world.removeItem(collider.position.x, collider.position.y);
+			public void onCollide(World world, Creature collider, int x, int y){
+				world.removeItem(x, y);
 				collider.gainRupees(1);
 			}
 		};
@@ -72,8 +79,8 @@ public class LootSaga implements Handler {
 	
 	public Item rupees_5(){
 		Item item =  new Item("rupees", 4, Common.hsv(240, 50, 75), "Rupees used for special actions."){
-			public void onCollide(World world, Creature collider){
-				world.removeItem(collider.position.x, collider.position.y);
+			public void onCollide(World world, Creature collider, int x, int y){
+				world.removeItem(x, y);
 				collider.gainRupees(5);
 			}
 		};
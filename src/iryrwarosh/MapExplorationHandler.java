@@ -1,25 +1,29 @@
 package iryrwarosh;
 
 import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.Hashtable;
 import java.util.List;
 
-public class MapExplorationHandler implements Handler {
-	private Hashtable<Creature, boolean[][]> exploration;
+public class MapExplorationHandler {
+	private Hashtable<Creature, BitSet> exploration;
 	private Hashtable<Creature, List<Tile>> biomes;
 	
 	public MapExplorationHandler(){
-		exploration = new Hashtable<Creature, boolean[][]>();
+		exploration = new Hashtable<Creature, BitSet>();
 		biomes = new Hashtable<Creature, List<Tile>>();
 	}
 	
-	@Override
-	public void handle(Message message) {
-		if (Moved.class.isAssignableFrom(message.getClass()))
-			handle((Moved)message);
-
-		if (WorldCreated.class.isAssignableFrom(message.getClass()))
-			handle((WorldCreated)message);
+	public void subscribe(MessageBus bus) {
+		Interest humans = new Interest(){
+			public boolean covers(World world, Creature creature, int x, int y) { return creature.isHuman(); }
+		};
+		bus.subscribe(Moved.class, humans, new Handler<Moved>(){
+			public void handle(Moved message) { MapExplorationHandler.this.handle(message); }
+		});
+		bus.subscribe(WorldCreated.class, new Handler<WorldCreated>(){
+			public void handle(WorldCreated message) { MapExplorationHandler.this.handle(message); }
+		});
 	}
 
 	public void handle(Moved message) {
@@ -33,25 +37,26 @@ public class MapExplorationHandler implements Handler {
 		exploration.clear();
 		biomes.clear();
 		
-		int sx = message.player.position.x / 19;
-		int sy = message.player.position.y / 9;
+		int sx = message.player.position.x / Chunk.WIDTH;
+		int sy = message.player.position.y / Chunk.HEIGHT;
 		
 		message.world.map().markAsExplored(sx, sy);
 	}
 	
 	private void explored(World world, Creature creature){
-		int sx = creature.position.x / 19;
-		int sy = creature.position.y / 9;
+		int sx = creature.position.x / Chunk.WIDTH;
+		int sy = creature.position.y / Chunk.HEIGHT;
 		
 		if (creature.isPlayer())
 			world.map().markAsExplored(sx, sy);
 
 		if (!exploration.containsKey(creature))
-			exploration.put(creature, new boolean[world.map().width()][world.map().height()]);
+			exploration.put(creature, new BitSet());
 		
-		if (exploration.get(creature)[sx][sy] == false){
-			exploration.get(creature)[sx][sy] = true;
-			MessageBus.publish(new ExploredNewLocation(world, creature, creature.name() + " has discovered a new location"));
+		int screen = sx * world.map().height() + sy;
+		if (!exploration.get(creature).get(screen)){
+			exploration.get(creature).set(screen);
+			world.bus().publish(new ExploredNewLocation(world, creature, creature.name() + " has discovered a new location"));
 			
 			Tile biome = world.map().biome(sx, sy);
 			
@@ -61,7 +66,7 @@ public class MapExplorationHandler implements Handler {
 			if (!biomes.get(creature).contains(biome)){
 				biomes.get(creature).add(biome);
 
-				MessageBus.publish(new ExploredNewBiome(world, creature, creature.name() + " has discovered a new region"));
+				world.bus().publish(new ExploredNewBiome(world, creature, creature.name() + " has discovered a new region"));
 			}
 		}
 	}
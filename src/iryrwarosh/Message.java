@@ -4,12 +4,27 @@ public abstract class Message {
 	public World world;
 	
 	private String text;
-	public String text(){ return text; }
+	
+	// Most messages are never shown, so the ones that aren't given their text up front only
+	// put it together the first time someone asks.
+	public String text(){
+		if (text == null)
+			text = describe();
+		return text;
+	}
 	
 	public Message(World world, String text){
 		this.world = world;
 		this.text = text;
 	}
+	
+	public Message(World world){
+		this(world, null);
+	}
+	
+	protected String describe(){
+		return "";
+	}
 
 	abstract public boolean involves(Creature player);
 
@@ -1,22 +1,195 @@
 package iryrwarosh;
 
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
+// Hands each message to the handlers subscribed to its kind. While the world updates, messages
+// are batched and handed out a kind at a time at set points in the turn.
 public class MessageBus {
+	public static final int MAX_CASCADE_DEPTH = 8;
 
-	private static List<Handler> handlers = new ArrayList<Handler>();
-	
-	public static void publish(Message message){
-		for (Handler handler : handlers)
-			handler.handle(message);
+	private static final Handler<?>[] NOBODY = new Handler<?>[0];
+	private static final Interest[] NO_INTEREST = new Interest[0];
+	private static final Interest[] EVERYONE = new Interest[] { Interest.EVERYONE };
+
+	private static class Subscription {
+		Class<?> type;
+		Interest interest;
+		Handler<?> handler;
+
+		Subscription(Class<?> type, Interest interest, Handler<?> handler){
+			this.type = type;
+			this.interest = interest;
+			this.handler = handler;
+		}
+	}
+
+	private List<Subscription> subscriptions = new ArrayList<Subscription>();
+	private Map<Class<?>, Handler<?>[]> dispatch = new HashMap<Class<?>, Handler<?>[]>();
+	private Map<Class<?>, Interest[]> interests = new HashMap<Class<?>, Interest[]>();
+
+	private boolean batching;
+	private boolean draining;
+	private List<Message> batch = new ArrayList<Message>();
+	private List<Message> round = new ArrayList<Message>();
+	private List<Class<?>> kinds = new ArrayList<Class<?>>();
+	private Map<Class<?>, long[]> stages = new LinkedHashMap<Class<?>, long[]>();
+
+	// Messages left over from the last drain go first, so nothing is handled ahead of what caused it.
+	public void publish(Message message){
+		if (batching){
+			batch.add(message);
+		} else if (!batch.isEmpty()){
+			batch.add(message);
+			drain();
+		} else {
+			deliver(message);
+		}
+	}
+
+	@SuppressWarnings("unchecked")
+	private void deliver(Message message){
+		for (Handler<?> handler : handlersFor(message.getClass()))
+			((Handler<Message>)handler).handle(message);
+	}
+
+	public void startBatching(){
+		batching = true;
 	}
-	
-	public static void subscribe(Handler handler){
-		handlers.add(handler);
+
+	// Anything left over past the cascade limit stays queued until the next drain or publish.
+	public void stopBatching(){
+		drain();
+		batching = false;
+	}
+
+	// Whatever handlers publish goes in the next round, for up to MAX_CASCADE_DEPTH rounds.
+	public void drain(){
+		if (draining)
+			return; // a handler is already being called from further up; it'll get to these
+
+		draining = true;
+		try {
+			for (int depth = 0; depth < MAX_CASCADE_DEPTH && !batch.isEmpty(); depth++){
+				List<Message> swap = round;
+				round = batch;
+				batch = swap;
+				deliverByKind(round);
+				round.clear();
+			}
+		} finally {
+			draining = false;
+		}
+	}
+
+	// One pass per kind of message, in the order each kind was first published.
+	private void deliverByKind(List<Message> messages){
+		kinds.clear();
+		for (Message message : messages){
+			if (!kinds.contains(message.getClass()))
+				kinds.add(message.getClass());
+		}
+
+		for (Class<?> kind : kinds){
+			long startedAt = System.nanoTime();
+			int count = 0;
+			for (Message message : messages){
+				if (message.getClass() != kind)
+					continue;
+
+				deliver(message);
+				count++;
+			}
+
+			long[] stage = stages.get(kind);
+			if (stage == null){
+				stage = new long[2];
+				stages.put(kind, stage);
+			}
+			stage[0] += count;
+			stage[1] += System.nanoTime() - startedAt;
+		}
 	}
-	
-	public static void unsubscribe(Handler handler){
-		handlers.remove(handler);
+
+	// how many of each kind of message drains have handed out and how long their handlers took
+	public String stageReport(){
+		StringBuilder report = new StringBuilder();
+		for (Map.Entry<Class<?>, long[]> stage : stages.entrySet())
+			report.append(String.format("  %-24s %8d %10.2f ms%n",
+					stage.getKey().getSimpleName(), stage.getValue()[0], stage.getValue()[1] / 1e6));
+		return report.toString();
+	}
+
+	// everything that's published
+	public void subscribe(Handler<Message> handler){
+		subscribe(Message.class, handler);
+	}
+
+	public <T extends Message> void subscribe(Class<T> type, Handler<? super T> handler){
+		subscribe(type, Interest.EVERYONE, handler);
+	}
+
+	public <T extends Message> void subscribe(Class<T> type, Interest interest, Handler<? super T> handler){
+		subscriptions.add(new Subscription(type, interest, handler));
+		dispatch.clear();
+		interests.clear();
+	}
+
+	// drops every subscription the handler has
+	public void unsubscribe(Handler<?> handler){
+		for (int i = subscriptions.size() - 1; i >= 0; i--){
+			if (subscriptions.get(i).handler == handler)
+				subscriptions.remove(i);
+		}
+		dispatch.clear();
+		interests.clear();
+	}
+
+	// whether any subscriber would do anything with this kind of message about this creature there
+	public boolean wants(Class<? extends Message> type, World world, Creature creature, int x, int y){
+		for (Interest interest : interestsFor(type)){
+			if (interest.covers(world, creature, x, y))
+				return true;
+		}
+		return false;
+	}
+
+	// Handlers that subscribe or unsubscribe while a message is being handled don't change who
+	// gets that message, since this hands out an array that's never changed once it's made.
+	private Handler<?>[] handlersFor(Class<?> type){
+		Handler<?>[] handlers = dispatch.get(type);
+
+		if (handlers == null){
+			List<Handler<?>> matching = new ArrayList<Handler<?>>();
+			for (Subscription subscription : subscriptions){
+				if (subscription.type.isAssignableFrom(type))
+					matching.add(subscription.handler);
+			}
+			handlers = matching.isEmpty() ? NOBODY : matching.toArray(new Handler<?>[matching.size()]);
+			dispatch.put(type, handlers);
+		}
+		return handlers;
+	}
+
+	private Interest[] interestsFor(Class<?> type){
+		Interest[] covering = interests.get(type);
+
+		if (covering == null){
+			List<Interest> matching = new ArrayList<Interest>();
+			for (Subscription subscription : subscriptions){
+				if (subscription.type.isAssignableFrom(type) && !matching.contains(subscription.interest))
+					matching.add(subscription.interest);
+			}
+
+			if (matching.contains(Interest.EVERYONE))
+				covering = EVERYONE;
+			else
+				covering = matching.isEmpty() ? NO_INTEREST : matching.toArray(new Interest[matching.size()]);
+			interests.put(type, covering);
+		}
+		return covering;
 	}
 }
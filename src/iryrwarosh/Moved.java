@@ -2,12 +2,22 @@ package iryrwarosh;
 
 public class Moved extends Message {
 	public Creature creature;
+	// where it was and where it got to, since it may have moved on again before this is handled
+	public Point from;
+	public Point to;
 	
-	public Moved(World world, Creature creature){
-		super(world, "The " + creature.name() + " moved");
+	public Moved(World world, Creature creature, Point from, Point to){
+		super(world);
 		this.creature = creature;
+		this.from = from;
+		this.to = to;
 	}
 	
+	@Override
+	protected String describe() {
+		return "The " + creature.name() + " moved";
+	}
+
 	@Override
 	public boolean involves(Creature player) {
 		return creature == player;
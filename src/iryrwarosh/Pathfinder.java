@@ -0,0 +1,186 @@
+package iryrwarosh;
+
+// Finds routes across the whole map by planning over the ScreenGraph and then only searching
+// tile by tile inside the screen the traveller is in. Holds its own buffers, so give each
+// traveller that might search in parallel its own Pathfinder.
+public class Pathfinder {
+	private int[] fromStart = new int[Chunk.WIDTH * Chunk.HEIGHT];
+	private int[] toGoal = new int[Chunk.WIDTH * Chunk.HEIGHT];
+	private int[] localQueue = new int[Chunk.WIDTH * Chunk.HEIGHT];
+
+	private int[] cost = new int[0];
+	private int[] parent = new int[0];
+	private int[] seen = new int[0];
+	private int[] heapNodes = new int[0];
+	private int[] heapKeys = new int[0];
+	private int heapSize;
+	private int search;
+
+	// The next tile to step onto on the way from one point to the other, or null if there's no way there.
+	public Point nextStep(World world, ScreenGraph graph, Point from, Point to){
+		int movementClass = graph.movementClass();
+
+		if (!world.reachable(from, to, movementClass))
+			return null;
+
+		if (from.x / Chunk.WIDTH == to.x / Chunk.WIDTH && from.y / Chunk.HEIGHT == to.y / Chunk.HEIGHT){
+			ScreenGraph.distancesInScreen(world, movementClass, to.x, to.y, toGoal, localQueue);
+			return stepToward(from, toGoal);
+		}
+
+		int last = route(world, graph, from, to);
+		if (last == -1)
+			return null;
+
+		int first = last;
+		while (parent[first] != -1)
+			first = parent[first];
+
+		int firstCell = graph.cells[first];
+		if (firstCell != from.x * world.height() + from.y){
+			int x = firstCell / world.height();
+			int y = firstCell % world.height();
+			ScreenGraph.distancesInScreen(world, movementClass, x, y, toGoal, localQueue);
+			return stepToward(from, toGoal);
+		}
+
+		// standing on the first crossing already, so head for the one after it
+		int next = last;
+		while (parent[next] != first)
+			next = parent[next];
+
+		int nextCell = graph.cells[next];
+		int x = nextCell / world.height();
+		int y = nextCell % world.height();
+		if (x / Chunk.WIDTH != from.x / Chunk.WIDTH || y / Chunk.HEIGHT != from.y / Chunk.HEIGHT)
+			return new Point(x, y);
+
+		ScreenGraph.distancesInScreen(world, movementClass, x, y, toGoal, localQueue);
+		return stepToward(from, toGoal);
+	}
+
+	// A* over the crossings; returns the node that ends the cheapest route, with parent[] leading back to the start
+	private int route(World world, ScreenGraph graph, Point from, Point to){
+		int startScreen = graph.screenOf(from.x * world.height() + from.y);
+		int goalScreen = graph.screenOf(to.x * world.height() + to.y);
+		int movementClass = graph.movementClass();
+
+		// looking at the tiles can make the screen, and so add to the graph, so it's only sized after
+		ScreenGraph.distancesInScreen(world, movementClass, from.x, from.y, fromStart, localQueue);
+		ScreenGraph.distancesInScreen(world, movementClass, to.x, to.y, toGoal, localQueue);
+
+		if (cost.length < graph.size()){
+			cost = new int[graph.size()];
+			parent = new int[graph.size()];
+			seen = new int[graph.size()];
+			heapNodes = new int[graph.size() * 4];
+			heapKeys = new int[graph.size() * 4];
+		}
+		search++;
+		heapSize = 0;
+
+		for (int node : graph.nodesInScreen[startScreen]){
+			int d = fromStart[graph.localIndex(graph.cells[node])];
+			if (d >= 0)
+				offer(graph, node, -1, d, to, world.height());
+		}
+
+		int best = -1;
+		int bestCost = Integer.MAX_VALUE;
+
+		while (heapSize > 0){
+			int key = heapKeys[0];
+			int node = pop();
+			if (key >= bestCost)
+				break;
+			
+			if (key > cost[node] + estimate(graph, node, to, world.height()))
+				continue; // offered again since, at a lower cost
+
+			if (graph.screenOf(graph.cells[node]) == goalScreen){
+				int d = toGoal[graph.localIndex(graph.cells[node])];
+				if (d >= 0 && cost[node] + d < bestCost){
+					bestCost = cost[node] + d;
+					best = node;
+				}
+			}
+
+			for (int i = 0; i < graph.edges[node].length; i++)
+				offer(graph, graph.edges[node][i], node, cost[node] + graph.costs[node][i], to, world.height());
+		}
+
+		return best;
+	}
+
+	private void offer(ScreenGraph graph, int node, int from, int newCost, Point to, int height){
+		if (seen[node] == search && cost[node] <= newCost)
+			return;
+
+		seen[node] = search;
+		cost[node] = newCost;
+		parent[node] = from;
+		int key = newCost + estimate(graph, node, to, height);
+
+		if (heapSize == heapNodes.length){
+			int[] biggerNodes = new int[heapNodes.length * 2 + 1];
+			int[] biggerKeys = new int[heapKeys.length * 2 + 1];
+			System.arraycopy(heapNodes, 0, biggerNodes, 0, heapSize);
+			System.arraycopy(heapKeys, 0, biggerKeys, 0, heapSize);
+			heapNodes = biggerNodes;
+			heapKeys = biggerKeys;
+		}
+
+		int i = heapSize++;
+		while (i > 0 && heapKeys[(i - 1) / 2] > key){
+			heapNodes[i] = heapNodes[(i - 1) / 2];
+			heapKeys[i] = heapKeys[(i - 1) / 2];
+			i = (i - 1) / 2;
+		}
+		heapNodes[i] = node;
+		heapKeys[i] = key;
+	}
+
+	private int estimate(ScreenGraph graph, int node, Point to, int height){
+		int x = graph.cells[node] / height;
+		int y = graph.cells[node] % height;
+		return Math.max(Math.abs(x - to.x), Math.abs(y - to.y));
+	}
+
+	private int pop(){
+		int top = heapNodes[0];
+		int lastNode = heapNodes[--heapSize];
+		int lastKey = heapKeys[heapSize];
+		int i = 0;
+		while (i * 2 + 1 < heapSize){
+			int child = i * 2 + 1;
+			if (child + 1 < heapSize && heapKeys[child + 1] < heapKeys[child])
+				child++;
+			if (heapKeys[child] >= lastKey)
+				break;
+			heapNodes[i] = heapNodes[child];
+			heapKeys[i] = heapKeys[child];
+			i = child;
+		}
+		heapNodes[i] = lastNode;
+		heapKeys[i] = lastKey;
+		return top;
+	}
+
+	private Point stepToward(Point from, int[] distance){
+		int left = from.x / Chunk.WIDTH * Chunk.WIDTH;
+		int top = from.y / Chunk.HEIGHT * Chunk.HEIGHT;
+		int here = distance[(from.x - left) * Chunk.HEIGHT + (from.y - top)];
+
+		Point best = null;
+		int bestDistance = here == -1 ? Integer.MAX_VALUE : here;
+		for (int x = Math.max(left, from.x - 1); x <= Math.min(left + Chunk.WIDTH - 1, from.x + 1); x++)
+		for (int y = Math.max(top, from.y - 1); y <= Math.min(top + Chunk.HEIGHT - 1, from.y + 1); y++){
+			int d = distance[(x - left) * Chunk.HEIGHT + (y - top)];
+			if (d >= 0 && d < bestDistance){
+				bestDistance = d;
+				best = new Point(x, y);
+			}
+		}
+		return best;
+	}
+}
@@ -3,6 +3,7 @@ package iryrwarosh;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.Random;
 
 public class Point {
 	public int x;
@@ -22,12 +23,15 @@ public class Point {
 	}
 
 	public List<Point> neighbors() {
-		List<Point> neighbors = Arrays.asList(
+		return Arrays.asList(
 				new Point(x-1,y-1), new Point(x+0,y-1), new Point(x+1,y-1), 
 				new Point(x-1,y+0),                     new Point(x+1,y+0),
 				new Point(x-1,y+1), new Point(x+0,y+1), new Point(x+1,y+1));
-				
-		Collections.shuffle(neighbors);
+	}
+
+	public List<Point> neighbors(Random random) {
+		List<Point> neighbors = neighbors();
+		Collections.shuffle(neighbors, random);
 		return neighbors;
 	}
 
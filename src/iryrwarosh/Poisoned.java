@@ -5,11 +5,16 @@ public class Poisoned extends Message {
 	public Creature attacked;
 	
 	public Poisoned(World world, Creature attacker, Creature attacked){
-		super(world, "The " + attacker.name() + " poisoned the " + attacked.name());
+		super(world);
 		this.attacker = attacker;
 		this.attacked = attacked;
 	}
 
+	@Override
+	protected String describe() {
+		return "The " + attacker.name() + " poisoned the " + attacked.name();
+	}
+
 	@Override
 	public boolean involves(Creature player) {
 		return attacker == player || attacked == player;
@@ -35,6 +35,7 @@ public class Projectile {
 	public void moveAndCheckForCollision(World world){
 		position.x += velocity.x;
 		position.y += velocity.y;
+		world.wake(position.x, position.y);
 		
 		if (airTime++ > 10)
 			isDone = true;
@@ -54,7 +55,7 @@ public class Projectile {
 			return;
 		
 		if (creature.hasTrait(Trait.DEFLECT_RANGED)){
-			MessageBus.publish(new DeflectRanged(world, creature, this));
+			world.bus().publish(new DeflectRanged(world, creature, this));
 		} else {
 			creature.loseHearts(world, origin, damage, "from a distance", "You were slain by the " + name() + " from a " + origin.name());
 		}
@@ -5,11 +5,16 @@ public class ReducedEvasion extends Message {
 	public Creature attacked;
 	
 	public ReducedEvasion(World world, Creature attacker, Creature attacked){
-		super(world, "The " + attacker.name() + "'s attack reduced the " + attacked.name() + "'s ability to evade");
+		super(world);
 		this.attacker = attacker;
 		this.attacked = attacked;
 	}
 
+	@Override
+	protected String describe() {
+		return "The " + attacker.name() + "'s attack reduced the " + attacked.name() + "'s ability to evade";
+	}
+
 	@Override
 	public boolean involves(Creature player) {
 		return attacker == player || attacked == player;
@@ -0,0 +1,440 @@
+package iryrwarosh;
+
+import java.util.Arrays;
+
+// Labels every tile with the connected region it belongs to, for each movement class, so
+// asking whether one place can be reached from another is a lookup instead of a search.
+// Each screen is labeled on its own as it's made and the pieces are joined across screen
+// borders with a union-find. Until every screen is made, two regions that both run off into
+// screens nobody has seen yet might still meet there, so they count as reachable.
+public class Regions {
+	private static final int CELLS = Chunk.WIDTH * Chunk.HEIGHT;
+	private static final int SPARE_IDS = 8; // for regions that split off when tiles change
+
+	private int screensWide;
+	private int screensHigh;
+	private byte[][][] labels;
+	private int[][] labelsUsed;
+	private int[][] firstId;
+	private int[][] idsKept;
+	private int[][] parent;
+	private int[][] rank;
+	private int[][] openEdges;
+	private int[][] rebuilt;
+	private int rebuilds;
+	private int[] nextId;
+	private int[] tilesInRegions;
+	private int[] queue = new int[CELLS];
+	private int[] screenSeen;
+	private int[] screenQueue = new int[16];
+	private int[] rebuiltIds = new int[64];
+
+	public Regions(World world){
+		this.screensWide = world.width() / Chunk.WIDTH;
+		this.screensHigh = world.height() / Chunk.HEIGHT;
+		this.labels = new byte[screensWide * screensHigh][][];
+		this.labelsUsed = new int[screensWide * screensHigh][Tile.MOVEMENT_CLASSES];
+		this.firstId = new int[screensWide * screensHigh][Tile.MOVEMENT_CLASSES];
+		this.idsKept = new int[screensWide * screensHigh][Tile.MOVEMENT_CLASSES];
+		this.parent = new int[Tile.MOVEMENT_CLASSES][64];
+		this.rank = new int[Tile.MOVEMENT_CLASSES][64];
+		this.openEdges = new int[Tile.MOVEMENT_CLASSES][64];
+		this.rebuilt = new int[Tile.MOVEMENT_CLASSES][64];
+		this.nextId = new int[Tile.MOVEMENT_CLASSES];
+		this.tilesInRegions = new int[Tile.MOVEMENT_CLASSES];
+		this.screenSeen = new int[screensWide * screensHigh];
+	}
+
+	// Only reads, so rivals can ask while they plan on the workers.
+	public boolean reachable(int movementClass, int x1, int y1, int x2, int y2){
+		int from = id(movementClass, x1, y1);
+		int to = id(movementClass, x2, y2);
+
+		if (from == -1 || to == -1)
+			return false;
+		if (from == 0 || to == 0)
+			return true; // somewhere that hasn't been made yet
+
+		from = root(movementClass, from);
+		to = root(movementClass, to);
+		return from == to || openEdges[movementClass][from] > 0 && openEdges[movementClass][to] > 0;
+	}
+
+	// how many tiles, in the screens made so far, a creature that moves this way could stand on
+	public int tiles(int movementClass){
+		return tilesInRegions[movementClass];
+	}
+
+	// -1 for somewhere that can't be entered, 0 for somewhere not made yet
+	private int id(int movementClass, int x, int y){
+		if (x < 0 || y < 0 || x >= screensWide * Chunk.WIDTH || y >= screensHigh * Chunk.HEIGHT)
+			return -1;
+
+		int screen = (x / Chunk.WIDTH) * screensHigh + y / Chunk.HEIGHT;
+		if (labels[screen] == null)
+			return 0;
+
+		int label = labels[screen][movementClass][(x % Chunk.WIDTH) * Chunk.HEIGHT + y % Chunk.HEIGHT] & 0xff;
+		return label == 0 ? -1 : firstId[screen][movementClass] + label;
+	}
+
+	void screenMade(Chunk chunk, int sx, int sy){
+		int screen = sx * screensHigh + sy;
+		labels[screen] = new byte[Tile.MOVEMENT_CLASSES][];
+
+		for (int movementClass = 0; movementClass < Tile.MOVEMENT_CLASSES; movementClass++){
+			label(chunk, screen, movementClass);
+			join(movementClass, sx, sy, false);
+			closeEdgesInto(movementClass, sx, sy);
+		}
+	}
+
+	void tileChanged(World world, int x, int y){
+		int sx = x / Chunk.WIDTH;
+		int sy = y / Chunk.HEIGHT;
+		int screen = sx * screensHigh + sy;
+		int cell = (x % Chunk.WIDTH) * Chunk.HEIGHT + y % Chunk.HEIGHT;
+
+		if (labels[screen] == null)
+			return;
+
+		Chunk chunk = world.chunk(sx, sy);
+		for (int movementClass = 0; movementClass < Tile.MOVEMENT_CLASSES; movementClass++){
+			boolean passable = chunk.isPassable(movementClass, x % Chunk.WIDTH, y % Chunk.HEIGHT);
+			if (passable == (labels[screen][movementClass][cell] != 0))
+				continue;
+
+			tilesInRegions[movementClass] += passable ? 1 : -1;
+			if (passable)
+				opened(chunk, movementClass, sx, sy, cell);
+			else
+				closed(chunk, movementClass, sx, sy, cell);
+		}
+	}
+
+	// A tile that opens up can only join regions together, so only this screen's labels change.
+	private void opened(Chunk chunk, int movementClass, int sx, int sy, int cell){
+		int screen = sx * screensHigh + sy;
+		byte[] label = labels[screen][movementClass];
+		int first = firstId[screen][movementClass];
+		int cx = cell / Chunk.HEIGHT;
+		int cy = cell % Chunk.HEIGHT;
+		int kept = 0;
+
+		for (int x = Math.max(0, cx - 1); x <= Math.min(Chunk.WIDTH - 1, cx + 1); x++)
+		for (int y = Math.max(0, cy - 1); y <= Math.min(Chunk.HEIGHT - 1, cy + 1); y++){
+			int other = label[x * Chunk.HEIGHT + y] & 0xff;
+			if (other == 0 || other == kept)
+				continue;
+
+			if (kept == 0){
+				kept = other;
+			} else {
+				// the other label's id is left joined to this one, for whatever already points at it
+				for (int i = 0; i < CELLS; i++)
+					if ((label[i] & 0xff) == other)
+						label[i] = (byte)kept;
+				union(movementClass, first + kept, first + other);
+			}
+		}
+
+		if (kept == 0){
+			if (labelsUsed[screen][movementClass] == idsKept[screen][movementClass]){
+				rebuild(chunk, movementClass, sx, sy, -1);
+				return;
+			}
+			kept = ++labelsUsed[screen][movementClass];
+			reset(movementClass, first + kept);
+		}
+		label[cell] = (byte)kept;
+
+		if (cx == 0 || cy == 0 || cx == Chunk.WIDTH - 1 || cy == Chunk.HEIGHT - 1)
+			joinAcross(movementClass, sx * Chunk.WIDTH + cx, sy * Chunk.HEIGHT + cy, first + kept);
+	}
+
+	// A tile that closes up may split its region anywhere the region goes, so that region is joined up again.
+	private void closed(Chunk chunk, int movementClass, int sx, int sy, int cell){
+		int screen = sx * screensHigh + sy;
+		int region = find(movementClass, firstId[screen][movementClass] + (labels[screen][movementClass][cell] & 0xff));
+
+		// taking a tile out of a region leaves at most four pieces of it around that tile
+		if (labelsUsed[screen][movementClass] + 3 > idsKept[screen][movementClass])
+			rebuild(chunk, movementClass, sx, sy, -1);
+		else
+			rebuild(chunk, movementClass, sx, sy, region);
+	}
+
+	// Starts the regions through this screen over: the one with this root, or all of them for -1. Only
+	// the screens those regions go through are looked at, and the screen is labeled again within its own ids.
+	private void rebuild(Chunk chunk, int movementClass, int sx, int sy, int region){
+		int screen = sx * screensHigh + sy;
+		int[] roots = new int[labelsUsed[screen][movementClass]];
+		int rootCount = 0;
+
+		if (region == -1){
+			int first = firstId[screen][movementClass];
+			for (int id = first + 1; id <= first + labelsUsed[screen][movementClass]; id++)
+				if (!contains(roots, rootCount, find(movementClass, id)))
+					roots[rootCount++] = find(movementClass, id);
+		} else {
+			roots[rootCount++] = region;
+		}
+
+		rebuilds++;
+		int head = 0;
+		int tail = 0;
+		int affected = 0;
+		int idCount = 0;
+		screenQueue[tail++] = screen;
+		screenSeen[screen] = rebuilds;
+
+		while (head < tail){
+			int current = screenQueue[head++];
+			int first = firstId[current][movementClass];
+			boolean touched = false;
+
+			for (int id = first + 1; id <= first + labelsUsed[current][movementClass]; id++){
+				if (!contains(roots, rootCount, find(movementClass, id)))
+					continue;
+
+				touched = true;
+				if (idCount == rebuiltIds.length)
+					rebuiltIds = ScreenGrid.grow(rebuiltIds);
+				rebuiltIds[idCount++] = id;
+			}
+
+			if (!touched)
+				continue;
+
+			// the screens whose regions need joining again are kept at the front of the queue
+			int swap = screenQueue[affected];
+			screenQueue[affected++] = current;
+			screenQueue[head - 1] = swap;
+
+			int csx = current / screensHigh;
+			int csy = current % screensHigh;
+			for (int x = Math.max(0, csx - 1); x <= Math.min(screensWide - 1, csx + 1); x++)
+			for (int y = Math.max(0, csy - 1); y <= Math.min(screensHigh - 1, csy + 1); y++){
+				int next = x * screensHigh + y;
+				if (labels[next] == null || screenSeen[next] == rebuilds)
+					continue;
+
+				screenSeen[next] = rebuilds;
+				if (tail == screenQueue.length)
+					screenQueue = ScreenGrid.grow(screenQueue);
+				screenQueue[tail++] = next;
+			}
+		}
+
+		for (int i = 0; i < idCount; i++)
+			reset(movementClass, rebuiltIds[i]);
+
+		if (region == -1)
+			label(chunk, screen, movementClass);
+		else
+			relabel(chunk, screen, movementClass);
+
+		for (int i = 0; i < affected; i++)
+			join(movementClass, screenQueue[i] / screensHigh, screenQueue[i] % screensHigh, true);
+	}
+
+	private static boolean contains(int[] values, int count, int value){
+		for (int i = 0; i < count; i++)
+			if (values[i] == value)
+				return true;
+		return false;
+	}
+
+	// Labels the screen's regions 1 and up, without counting its tiles twice. The ids after firstId are
+	// the screen's own and are used again each time it's labeled, as long as there are enough of them.
+	private void label(Chunk chunk, int screen, int movementClass){
+		byte[] label = new byte[CELLS];
+		int count = 0;
+		boolean first = labels[screen][movementClass] == null;
+
+		for (int start = 0; start < CELLS; start++){
+			if (label[start] != 0 || !chunk.isPassable(movementClass, start / Chunk.HEIGHT, start % Chunk.HEIGHT))
+				continue;
+
+			count++;
+			int tiles = fill(chunk, movementClass, label, start, count);
+			if (first)
+				tilesInRegions[movementClass] += tiles;
+		}
+
+		labels[screen][movementClass] = label;
+		labelsUsed[screen][movementClass] = count;
+
+		if (first || count + SPARE_IDS / 2 > idsKept[screen][movementClass]){
+			firstId[screen][movementClass] = nextId[movementClass];
+			idsKept[screen][movementClass] = count + SPARE_IDS;
+			nextId[movementClass] += count + SPARE_IDS;
+			grow(movementClass, nextId[movementClass]);
+		}
+
+		for (int id = firstId[screen][movementClass] + 1; id <= firstId[screen][movementClass] + idsKept[screen][movementClass]; id++)
+			reset(movementClass, id);
+	}
+
+	// Labels the pieces of the regions being rebuilt again, with the labels they had and new ones after those.
+	private void relabel(Chunk chunk, int screen, int movementClass){
+		byte[] label = labels[screen][movementClass];
+		int first = firstId[screen][movementClass];
+		int[] free = new int[labelsUsed[screen][movementClass]];
+		int freeCount = 0;
+
+		for (int l = 1; l <= labelsUsed[screen][movementClass]; l++)
+			if (rebuilt[movementClass][first + l] == rebuilds)
+				free[freeCount++] = l;
+
+		for (int i = 0; i < CELLS; i++)
+			if (label[i] != 0 && rebuilt[movementClass][first + (label[i] & 0xff)] == rebuilds)
+				label[i] = 0;
+
+		int used = 0;
+		for (int start = 0; start < CELLS; start++){
+			if (label[start] != 0 || !chunk.isPassable(movementClass, start / Chunk.HEIGHT, start % Chunk.HEIGHT))
+				continue;
+
+			int next;
+			if (used < freeCount){
+				next = free[used++];
+			} else {
+				next = ++labelsUsed[screen][movementClass];
+				reset(movementClass, first + next);
+			}
+			fill(chunk, movementClass, label, start, next);
+		}
+	}
+
+	// Gives the unlabeled tiles joined to start the same label and says how many there were.
+	private int fill(Chunk chunk, int movementClass, byte[] label, int start, int value){
+		int head = 0;
+		int tail = 0;
+		queue[tail++] = start;
+		label[start] = (byte)value;
+
+		while (head < tail){
+			int current = queue[head++];
+			int cx = current / Chunk.HEIGHT;
+			int cy = current % Chunk.HEIGHT;
+
+			for (int x = Math.max(0, cx - 1); x <= Math.min(Chunk.WIDTH - 1, cx + 1); x++)
+			for (int y = Math.max(0, cy - 1); y <= Math.min(Chunk.HEIGHT - 1, cy + 1); y++){
+				int index = x * Chunk.HEIGHT + y;
+				if (label[index] != 0 || !chunk.isPassable(movementClass, x, y))
+					continue;
+
+				label[index] = (byte)value;
+				queue[tail++] = index;
+			}
+		}
+		return tail;
+	}
+
+	private void reset(int movementClass, int id){
+		parent[movementClass][id] = id;
+		rank[movementClass][id] = 0;
+		openEdges[movementClass][id] = 0;
+		rebuilt[movementClass][id] = rebuilds;
+	}
+
+	private void grow(int movementClass, int lastId){
+		if (parent[movementClass].length > lastId)
+			return;
+
+		int size = Math.max(lastId + 1, parent[movementClass].length * 2);
+		parent[movementClass] = Arrays.copyOf(parent[movementClass], size);
+		rank[movementClass] = Arrays.copyOf(rank[movementClass], size);
+		openEdges[movementClass] = Arrays.copyOf(openEdges[movementClass], size);
+		rebuilt[movementClass] = Arrays.copyOf(rebuilt[movementClass], size);
+	}
+
+	// Joins the screen's regions to those of the screens around it that are made, and keeps count
+	// of the ways out of each region into screens that aren't. Maybe only the regions being rebuilt.
+	private void join(int movementClass, int sx, int sy, boolean onlyRebuilt){
+		int left = sx * Chunk.WIDTH;
+		int top = sy * Chunk.HEIGHT;
+
+		for (int lx = 0; lx < Chunk.WIDTH; lx++)
+		for (int ly = 0; ly < Chunk.HEIGHT; ly++){
+			if (lx > 0 && ly > 0 && lx < Chunk.WIDTH - 1 && ly < Chunk.HEIGHT - 1)
+				continue;
+
+			int here = id(movementClass, left + lx, top + ly);
+			if (here > 0 && (!onlyRebuilt || rebuilt[movementClass][here] == rebuilds))
+				joinAcross(movementClass, left + lx, top + ly, here);
+		}
+	}
+
+	private void joinAcross(int movementClass, int x, int y, int here){
+		int left = x / Chunk.WIDTH * Chunk.WIDTH;
+		int top = y / Chunk.HEIGHT * Chunk.HEIGHT;
+
+		for (int nx = x - 1; nx <= x + 1; nx++)
+		for (int ny = y - 1; ny <= y + 1; ny++){
+			if (nx >= left && ny >= top && nx < left + Chunk.WIDTH && ny < top + Chunk.HEIGHT)
+				continue;
+
+			int there = id(movementClass, nx, ny);
+			if (there == 0)
+				openEdges[movementClass][find(movementClass, here)]++;
+			else if (there > 0)
+				union(movementClass, here, there);
+		}
+	}
+	// Neighboring regions counted their border with this screen as open; now it's made, it isn't.
+	private void closeEdgesInto(int movementClass, int sx, int sy){
+		int left = sx * Chunk.WIDTH;
+		int top = sy * Chunk.HEIGHT;
+
+		for (int x = left - 1; x <= left + Chunk.WIDTH; x++)
+		for (int y = top - 1; y <= top + Chunk.HEIGHT; y++){
+			if (x >= left && y >= top && x < left + Chunk.WIDTH && y < top + Chunk.HEIGHT)
+				continue;
+
+			int there = id(movementClass, x, y);
+			if (there <= 0)
+				continue;
+
+			for (int nx = Math.max(left, x - 1); nx <= Math.min(left + Chunk.WIDTH - 1, x + 1); nx++)
+			for (int ny = Math.max(top, y - 1); ny <= Math.min(top + Chunk.HEIGHT - 1, y + 1); ny++)
+				openEdges[movementClass][find(movementClass, there)]--;
+		}
+	}
+
+	private int root(int movementClass, int id){
+		int[] up = parent[movementClass];
+		while (up[id] != id)
+			id = up[id];
+		return id;
+	}
+
+	// Halves the path on the way up, so it's only for while the regions are being changed.
+	private int find(int movementClass, int id){
+		int[] up = parent[movementClass];
+		while (up[id] != id){
+			up[id] = up[up[id]];
+			id = up[id];
+		}
+		return id;
+	}
+
+	private void union(int movementClass, int a, int b){
+		a = find(movementClass, a);
+		b = find(movementClass, b);
+		if (a == b)
+			return;
+
+		if (rank[movementClass][a] < rank[movementClass][b]){
+			int swap = a;
+			a = b;
+			b = swap;
+		}
+		if (rank[movementClass][a] == rank[movementClass][b])
+			rank[movementClass][a]++;
+
+		parent[movementClass][b] = a;
+		openEdges[movementClass][a] += openEdges[movementClass][b];
+	}
+}
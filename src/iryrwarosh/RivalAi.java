@@ -1,16 +1,82 @@
 package iryrwarosh;
 
-import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.BitSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Random;
 
 public class RivalAi {
-	private int[][] baseValue;
+	private static final int[] DX = { -1, 0, 1, -1, 1, -1, 0, 1 };
+	private static final int[] DY = { -1, -1, -1, 0, 0, 1, 1, 1 };
+	
+	private int width;
+	private int height;
+	
+	// places this rival still wants to go and have a look at; everything else it remembers is in the world
+	private BitSet unexplored;
+	
+	// Search buffers are cleared before each move is decided and only hold the screens it looked at;
+	// within one move a cell is only visited if its stamp matches the current generation.
+	// They're only needed while deciding a move, so each thread keeps one set for all the rivals it plans for.
+	// Floods get their own stamps and queue since unseen things are taken out partway through a search.
+	private static class Buffers {
+		int width;
+		int height;
+		ScreenGrid localValue;
+		ScreenGrid unseenValue;
+		ScreenGrid visited;
+		ScreenGrid flooded;
+		ScreenGrid parent;
+		int generation;
+		int floodGeneration;
+		int[] queue = new int[256];
+		int[] floodQueue = new int[256];
+		int[] directions = new int[8];
+		int[][] screensLookedAt;
+		int move;
+		Pathfinder pathfinder = new Pathfinder();
+		
+		Buffers(int width, int height){
+			this.width = width;
+			this.height = height;
+			localValue = new ScreenGrid(width, height);
+			unseenValue = new ScreenGrid(width, height);
+			visited = new ScreenGrid(width, height);
+			flooded = new ScreenGrid(width, height);
+			parent = new ScreenGrid(width, height);
+			screensLookedAt = new int[width / Chunk.WIDTH][height / Chunk.HEIGHT];
+		}
+		
+		void clear(){
+			localValue.clear();
+			unseenValue.clear();
+			visited.clear();
+			flooded.clear();
+			parent.clear();
+			generation = 0;
+			floodGeneration = 0;
+			move++;
+		}
+	}
+	
+	private static final ThreadLocal<Buffers> buffersByThread = new ThreadLocal<Buffers>();
+	
+	private Buffers buffers;
+	private InfluenceMap shared;
+	private Point destination;
 	
 	protected List<Trait> scaryTraits;
 	private double explorationPercent;
 	private double talkativeness;
 	
+	private Point plannedFrom;
+	private Point plannedMove;
+	private Point plannedDestination;
+	private int plannedIn;
+	private long randomBeforePlan;
+	private long randomAfterPlan;
+	
 	public RivalAi(double explorationPercent, double talkativeness){
 		scaryTraits = Arrays.asList( Trait.POISONOUS, Trait.AGGRESSIVE, Trait.REACH_ATTACK, 
 			Trait.DOUBLE_ATTACK, Trait.DOUBLE_MOVE, Trait.HUNTER);
@@ -20,7 +86,7 @@ public class RivalAi {
 	}
 	
 	public void update(World world, Creature self) {
-		if (baseValue == null)
+		if (unexplored == null)
 			initBaseValues(world, self);
 	
 		self.registerAiForEvents(this);
@@ -28,16 +94,36 @@ public class RivalAi {
 	}
 
 	private void initBaseValues(World world, Creature self) {
-		baseValue = new int[80 / 3 * 19][24 / 3 * 9];
-		for (int x = 0; x < world.width(); x++)
-		for (int y = 0; y < world.height(); y++){
-			if (self.canEnter(world.tile(x, y)))
-				baseValue[x][y] = Math.random() < explorationPercent ? 1 : 0; // encourage exploration
-			else
-				baseValue[x][y] = -100;
+		width = world.width();
+		height = world.height();
+		unexplored = new BitSet(width * height);
+		
+		// walls are left for baseValue to rule out, so this doesn't make every screen
+		for (int x = 0; x < width; x++)
+		for (int y = 0; y < height; y++){
+			if (self.random().nextDouble() < explorationPercent)
+				unexplored.set(x * height + y); // encourage exploration
 		}
 	}
 	
+	private int baseValue(World world, Creature self, int index){
+		if (!self.canEnter(world, index / height, index % height))
+			return -100;
+		
+		return unexplored.get(index) ? 1 : 0;
+	}
+	
+	private static Buffers buffers(int width, int height){
+		Buffers buffers = buffersByThread.get();
+		
+		if (buffers == null || buffers.width != width || buffers.height != height){
+			buffers = new Buffers(width, height);
+			buffersByThread.set(buffers);
+		}
+		buffers.clear();
+		return buffers;
+	}
+	
 	public int personalEvaluation(Creature creature){
 		return 0;
 	}
@@ -46,21 +132,88 @@ public class RivalAi {
 		return 0;
 	}
 
+	// Called in parallel with the other rivals before the turn, so it must only read the world.
+	// The plan is only a guess until it's used, so whatever deciding it changed here is put back.
+	public void plan(World world, Creature self) {
+		plannedFrom = null;
+		
+		if (unexplored == null || self.isHidden())
+			return;
+		
+		int here = self.position.x * height + self.position.y;
+		boolean wasUnexplored = inBounds(self.position.x, self.position.y) && unexplored.get(here);
+		Point destinationBefore = destination;
+		int unmadeBefore = world.unmadeLookups();
+		randomBeforePlan = self.random().state();
+		
+		plannedMove = nextMove(world, self);
+		plannedDestination = destination;
+		randomAfterPlan = self.random().state();
+		
+		self.random().state(randomBeforePlan);
+		destination = destinationBefore;
+		if (wasUnexplored)
+			unexplored.set(here);
+		
+		// deciding now would make those screens and might go another way
+		if (world.unmadeLookups() != unmadeBefore)
+			return;
+		
+		plannedIn = world.plans();
+		plannedFrom = self.position.copy();
+	}
+	
+	// Only if nothing it could have seen or drawn on has changed since, so it's the move it would make now.
+	private boolean planStillGood(World world, Creature self){
+		return plannedFrom != null
+				&& plannedIn == world.plans()
+				&& plannedFrom.x == self.position.x && plannedFrom.y == self.position.y
+				&& self.random().state() == randomBeforePlan
+				&& !world.changedSincePlanning(self.position.x, self.position.y, InfluenceMap.SIGHT);
+	}
+
 	private void goToNearestInterestingThing(World world, Creature self) {
-		if (self.isHidden())
+		if (self.isHidden()){
+			plannedFrom = null;
 			return;
+		}
+		
+		Point next = null;
+		if (planStillGood(world, self)){
+			if (inBounds(self.position.x, self.position.y))
+				unexplored.clear(self.position.x * height + self.position.y);
+			destination = plannedDestination;
+			self.random().state(randomAfterPlan);
+			next = plannedMove;
+		} else {
+			next = nextMove(world, self);
+		}
+		plannedFrom = null;
 		
-		if (baseValue[self.position.x][self.position.y] == 1)
-			baseValue[self.position.x][self.position.y] = 0;
+		if (next == null){
+			self.wander(world);
+		} else {
+			Point diff = next.minus(self.position);
+			self.moveBy(world, diff.x, diff.y);
+		}
+	}
+	
+	private Point nextMove(World world, Creature self) {
+		if (inBounds(self.position.x, self.position.y))
+			unexplored.clear(self.position.x * height + self.position.y);
 		
-		int[][] localValues = new int[80 / 3 * 19][24 / 3 * 9];
+		buffers = buffers(width, height);
+		shared = world.influence(self);
 		
+		// The shared map already counts what everyone sees the same way, so only
+		// where this rival sees things differently needs a flood of its own. What it
+		// can't see at all is taken back out by localValue, for the screens it looks at.
 		for (Creature other : world.creaturesNear(self)){
 			int value = -1;
 			int radius = 2;
 			
 			for (Trait trait : scaryTraits){
-				if (other.description().contains(trait.description())){
+				if (other.showsTrait(trait)){
 					value--;
 					radius++;
 				}
@@ -76,13 +229,18 @@ public class RivalAi {
 					value += 5;
 			}
 			
-			if (other.description().contains(Trait.AGGRESSIVE.description()) 
+			if (other.showsTrait(Trait.AGGRESSIVE) 
 					&& self.position.distanceTo(other.position) == 1)
 				value = 9;
 
 			value += personalEvaluation(other);
 			
-			add(localValues, value, radius, world, self, other.position);
+			if (!InfluenceMap.isShared(other)){
+				add(buffers.localValue, value, radius, world, self, other.position);
+			} else if (value != InfluenceMap.threatAmount(other) || radius != InfluenceMap.threatRadius(other)){
+				add(buffers.localValue, -InfluenceMap.threatAmount(other), InfluenceMap.threatRadius(other), world, self, other.position);
+				add(buffers.localValue, value, radius, world, self, other.position);
+			}
 		}
 		
 		for (Pair<Item,Point> pair : world.itemsNear(self)){
@@ -93,147 +251,298 @@ public class RivalAi {
 
 			value += personalEvaluation(pair.first);
 			
-			add(localValues, value, value , world, self, pair.second);
+			int sharedValue = InfluenceMap.attractionAmount(pair.first);
+			if (value != sharedValue){
+				add(buffers.localValue, -sharedValue, sharedValue, world, self, pair.second);
+				add(buffers.localValue, value, value, world, self, pair.second);
+			}
 		}
 		
-		Point next = adjacentInterstingThing(self, localValues);
+		Point next = adjacentInterstingThing(world, self);
 		
 		if (next == null)
-			next = nextMove(self, baseValue, localValues);
+			next = pathToSomethingInteresting(world, self);
 		
-		if (next == null){
-			self.wander(world);
-		} else {
-			Point diff = next.minus(self.position);
-			self.moveBy(world, diff.x, diff.y);
+		if (next == null)
+			next = travel(world, self);
+		
+		return next;
+	}
+	
+	// Nothing worth having nearby, so set off for some other part of the map.
+	private Point travel(World world, Creature self){
+		if (destination == null || destination.distanceTo(self.position) < 2)
+			destination = pickDestination(world, self);
+		
+		if (destination == null)
+			return null;
+		
+		Point next = buffers.pathfinder.nextStep(world, world.screenGraph(self.movementClass()), self.position, destination);
+		
+		if (next == null)
+			destination = null;
+		
+		return next;
+	}
+	
+	private Point pickDestination(World world, Creature self){
+		int sx = self.random().nextInt(world.width() / Chunk.WIDTH);
+		int sy = self.random().nextInt(world.height() / Chunk.HEIGHT);
+		
+		for (int tries = 0; tries < 20; tries++){
+			int x = sx * Chunk.WIDTH + self.random().nextInt(Chunk.WIDTH);
+			int y = sy * Chunk.HEIGHT + self.random().nextInt(Chunk.HEIGHT);
+			
+			Point candidate = new Point(x, y);
+			if (world.reachable(self.position, candidate, self.movementClass()))
+				return candidate;
 		}
+		return null;
+	}
+	
+	// Nothing this rival can see reaches as far as SIGHT + REACH, so past that only its own floods count.
+	private int localValue(World world, Creature self, int index){
+		int x = index / height;
+		int y = index % height;
+		
+		if (Math.max(Math.abs(x - self.position.x), Math.abs(y - self.position.y)) >= InfluenceMap.SIGHT + InfluenceMap.REACH)
+			return buffers.localValue.get(index);
+		
+		if (buffers.screensLookedAt[x / Chunk.WIDTH][y / Chunk.HEIGHT] != buffers.move)
+			leaveOutUnseen(world, self, x / Chunk.WIDTH, y / Chunk.HEIGHT);
+		
+		return shared.value(index) + buffers.unseenValue.get(index) + buffers.localValue.get(index);
+	}
+	
+	// Takes the creatures and items this rival can't see back out of the shared map around a screen
+	// it's about to look at. Each is taken out once, when the first screen it reaches is looked at.
+	private void leaveOutUnseen(World world, Creature self, int sx, int sy){
+		int[][] lookedAt = buffers.screensLookedAt;
+		int reachX = (InfluenceMap.REACH - 2) / Chunk.WIDTH + 1;
+		int reachY = (InfluenceMap.REACH - 2) / Chunk.HEIGHT + 1;
+		
+		for (int ox = Math.max(0, sx - reachX); ox <= Math.min(lookedAt.length - 1, sx + reachX); ox++)
+		for (int oy = Math.max(0, sy - reachY); oy <= Math.min(lookedAt[0].length - 1, sy + reachY); oy++){
+			for (Creature other : world.screenOccupants(ox, oy)){
+				if (!InfluenceMap.isShared(other) || self.canSee(other))
+					continue;
+				
+				if (firstReached(other.position.x, other.position.y, InfluenceMap.threatReach(other), sx, sy))
+					add(buffers.unseenValue, -InfluenceMap.threatAmount(other), InfluenceMap.threatRadius(other), world, self, other.position);
+			}
+			
+			Map<Integer,Item> items = world.screenItems(ox, oy);
+			if (items == null)
+				continue;
+			
+			for (Map.Entry<Integer,Item> entry : items.entrySet()){
+				int x = entry.getKey() >> 16;
+				int y = entry.getKey() & 0xFFFF;
+				
+				// the same box World.itemsNear looks in
+				if (Math.abs(x - self.position.x) <= InfluenceMap.SIGHT && Math.abs(y - self.position.y) <= InfluenceMap.SIGHT)
+					continue;
+				
+				int amount = InfluenceMap.attractionAmount(entry.getValue());
+				if (firstReached(x, y, amount, sx, sy))
+					add(buffers.unseenValue, -amount, amount, world, self, new Point(x, y));
+			}
+		}
+		lookedAt[sx][sy] = buffers.move;
+	}
+	
+	// Whether something at (x, y) reaches this screen and no screen that's been looked at already.
+	private boolean firstReached(int x, int y, int reach, int sx, int sy){
+		if (reach < 1)
+			return false;
+		
+		int[][] lookedAt = buffers.screensLookedAt;
+		int left = Math.max(0, (x - reach + 1) / Chunk.WIDTH);
+		int right = Math.min(lookedAt.length - 1, Math.max(0, x + reach - 1) / Chunk.WIDTH);
+		int top = Math.max(0, (y - reach + 1) / Chunk.HEIGHT);
+		int bottom = Math.min(lookedAt[0].length - 1, Math.max(0, y + reach - 1) / Chunk.HEIGHT);
+		
+		if (sx < left || sx > right || sy < top || sy > bottom)
+			return false;
+		
+		for (int ox = left; ox <= right; ox++)
+		for (int oy = top; oy <= bottom; oy++)
+			if (lookedAt[ox][oy] == buffers.move)
+				return false;
+		return true;
+	}
+	
+	private boolean inBounds(int x, int y){
+		return x >= 0 && y >= 0 && x < width && y < height;
 	}
 
-	private Point adjacentInterstingThing(Creature self, int[][] localValues) {
+	// Same order Point.neighbors(random) would give, without allocating the points.
+	private void shuffleDirections(Random random){
+		int[] directions = buffers.directions;
+		for (int i = 0; i < 8; i++)
+			directions[i] = i;
+		
+		for (int i = 8; i > 1; i--){
+			int j = random.nextInt(i);
+			int swap = directions[i - 1];
+			directions[i - 1] = directions[j];
+			directions[j] = swap;
+		}
+	}
+
+	private Point adjacentInterstingThing(World world, Creature self) {
 		Point next = null;
 		int highestNumber = 0;
-		for (Point p : self.position.neighbors()){
-			if (p.x < 0 || p.y < 0 || p.x >= localValues.length || p.y >= localValues[0].length)
+		shuffleDirections(self.random());
+		for (int d : buffers.directions){
+			int x = self.position.x + DX[d];
+			int y = self.position.y + DY[d];
+			if (!inBounds(x, y))
 				continue;
 				
-			int value = baseValue[p.x][p.y] + localValues[p.x][p.y];
+			int value = baseValue(world, self, x * height + y) + localValue(world, self, x * height + y);
 			if (value > highestNumber){
 				highestNumber = value;
-				next = p;
+				next = new Point(x, y);
 			}
 		}
 		return next;
 	}
 	
-	int[][] done = new int[80 / 3 * 19][24 / 3 * 9];
-	int doneCounter;
-	private void add(int[][] map, int amount, int maxDistance, World world, Creature self, Point position) {
-		doneCounter++;
+	private void add(ScreenGrid into, int amount, int maxDistance, World world, Creature self, Point position) {
 		int step = amount > 0 ? -1 : 1;
-
-		List<Point> frontiers = new ArrayList<Point>();
-		List<Point> nextFrontiers = new ArrayList<Point>();
 		
-		frontiers.add(position);
+		if (amount == 0 || !inBounds(position.x, position.y))
+			return;
+		
+		ScreenGrid visited = buffers.flooded;
+		int[] queue = buffers.floodQueue;
+		int generation = ++buffers.floodGeneration;
+		int head = 0;
+		int tail = 0;
+		queue[tail++] = position.x * height + position.y;
+		visited.set(queue[0], generation);
 		
-		while (amount != 0){
+		while (amount != 0 && head < tail){
+			int levelEnd = tail;
 			int loops = 0;
-			while (frontiers.size() > 0){
-				if (loops++ == 1000)
+			while (head < levelEnd){
+				if (loops++ == 1000){
+					head = levelEnd;
 					break;
+				}
 				
-				Point current = frontiers.remove(0);
-				
-				if (done[current.x][current.y] == doneCounter)
-					continue;
-				
-				if (current.distanceTo(position) >= maxDistance)
-					continue;
+				int current = queue[head++];
+				int cx = current / height;
+				int cy = current % height;
 				
-				if (current.x < 0 || current.y < 0 || current.x >= map.length || current.y >= map[0].length)
+				if (Math.max(Math.abs(cx - position.x), Math.abs(cy - position.y)) >= maxDistance)
 					continue;
 				
-				map[current.x][current.y] += amount;
-				done[current.x][current.y] = doneCounter;
+				into.add(current, amount);
 				
-				for (Point p : current.neighbors()){
-					if (p.x < 0 || p.y < 0 || p.x >= map.length || p.y >= map[0].length)
+				for (int d = 0; d < 8; d++){
+					int x = cx + DX[d];
+					int y = cy + DY[d];
+					if (!inBounds(x, y))
 						continue;
 					
-					if (done[p.x][p.y] != doneCounter && self.canEnter(world.tile(p.x, p.y)))
-						nextFrontiers.add(p);
+					int index = x * height + y;
+					if (visited.get(index) != generation && self.canEnter(world, x, y)){
+						visited.set(index, generation);
+						if (tail == queue.length)
+							queue = buffers.floodQueue = ScreenGrid.grow(queue);
+						queue[tail++] = index;
+					}
 				}
 			}
 			amount += step;
-			frontiers.clear();
-			frontiers.addAll(nextFrontiers);
-			nextFrontiers.clear();
 		}
 	}
 	
-	private Point nextMove(Creature self, int[][] map1, int[][] map2){
-		Point[][] parent = new Point[80 / 3 * 19][24 / 3 * 9];
+	private Point pathToSomethingInteresting(World world, Creature self){
+		ScreenGrid visited = buffers.visited;
+		ScreenGrid parent = buffers.parent;
+		int[] queue = buffers.queue;
+		int generation = ++buffers.generation;
+		int start = self.position.x * height + self.position.y;
+		visited.set(start, generation);
 		
-		List<Pair<Point,Point>> frontiers = new ArrayList<Pair<Point,Point>>();
+		int head = 0;
+		int tail = 0;
 		
-		for (Point p : self.position.neighbors())
-			frontiers.add(new Pair<Point,Point>(self.position, p));
+		shuffleDirections(self.random());
+		for (int d : buffers.directions){
+			int x = self.position.x + DX[d];
+			int y = self.position.y + DY[d];
+			if (!inBounds(x, y))
+				continue;
+			
+			int index = x * height + y;
+			visited.set(index, generation);
+			parent.set(index, start);
+			queue[tail++] = index;
+		}
 		
-		Point current = null;
 		int loops = 0;
-		while (frontiers.size() > 0){
-			Pair<Point,Point> pair = frontiers.remove(0);
-			current = pair.second;
-			
+		while (head < tail){
 			if (loops++ == 5000)
-				break;
-			
-			if (current.x < 0 || current.y < 0 || current.x >= map1.length || current.y >= map1[0].length)
-				continue;
+				return null;
 			
-			int value = map1[current.x][current.y] + map2[current.x][current.y];
+			int current = queue[head++];
+			int value = baseValue(world, self, current) + localValue(world, self, current);
 			
 			if (value < -90)
 				continue;
-			
-			if (parent[current.x][current.y] != null)
-				continue;
-			
-			parent[current.x][current.y] = pair.first;
 
 			if (value > 0)
-				break;
+				return walkBackToStartPoint(start, current);
 			
-			for (Point p : current.neighbors()){
-				frontiers.add(new Pair<Point,Point>(current, p));
+			int cx = current / height;
+			int cy = current % height;
+			shuffleDirections(self.random());
+			for (int d : buffers.directions){
+				int x = cx + DX[d];
+				int y = cy + DY[d];
+				if (!inBounds(x, y))
+					continue;
+				
+				int index = x * height + y;
+				if (visited.get(index) != generation){
+					visited.set(index, generation);
+					parent.set(index, current);
+					if (tail == queue.length)
+						queue = buffers.queue = ScreenGrid.grow(queue);
+					queue[tail++] = index;
+				}
 			}
 		}
 		
-		if (current == null || frontiers.size() == 0)
-			return null;
-		
-		current = walkBackToStartPoint(self.position, parent, current);
-		
-		return current;
+		return null;
 	}
 
-	private Point walkBackToStartPoint(Point start, Point[][] parent, Point current) {
-		Point next = parent[current.x][current.y];
+	private Point walkBackToStartPoint(int start, int current) {
+		ScreenGrid parent = buffers.parent;
+		int next = parent.get(current);
 		int loops = 0;
-		while (next != null){
+		while (next != start){
 			if (loops++ == 1000)
 				return null;
-			if (next.x == start.x && next.y == start.y)
-				break;
 			current = next;
-			next = parent[current.x][current.y];
+			next = parent.get(current);
 		}
-		return current;
+		return new Point(current / height, current % height);
+	}
+	
+	public boolean listensFor(Class<? extends Message> type){
+		return Attacked.class.isAssignableFrom(type)
+				|| Killed.class.isAssignableFrom(type)
+				|| DiscoveredLostArtifact.class.isAssignableFrom(type);
 	}
 	
 	public void handle(Creature self, Message message){
 		String text = null;
-		if (Attacked.class.isAssignableFrom(message.getClass()) && Math.random() < talkativeness){
+		if (Attacked.class.isAssignableFrom(message.getClass()) && self.random().nextDouble() < talkativeness){
 			Attacked attackedMessage = (Attacked)message;
 			if (attackedMessage.attacked == self){
 				if (attackedMessage.attacker.hasTrait(Trait.POISONOUS))
@@ -252,7 +561,7 @@ public class RivalAi {
 				text = "I'm going to rule, not you " + attackedMessage.attacked.name() + "!";
 			}
 		}
-		else if (Killed.class.isAssignableFrom(message.getClass()) && Math.random() < talkativeness){
+		else if (Killed.class.isAssignableFrom(message.getClass()) && self.random().nextDouble() < talkativeness){
 			Killed killedMessage = (Killed)message;
 			if (killedMessage.attacked.isHuman() && killedMessage.attacker == self)
 				text = "One fewer rival....";
@@ -260,11 +569,11 @@ public class RivalAi {
 				text = "....I almost made it....";
 			}
 		}
-		else if (DiscoveredLostArtifact.class.isAssignableFrom(message.getClass()) && Math.random() < talkativeness){
+		else if (DiscoveredLostArtifact.class.isAssignableFrom(message.getClass()) && self.random().nextDouble() < talkativeness){
 			text = "Shiny!";
 		}
 		
 		if (text != null)
-			MessageBus.publish(new SaidOutLoud(self, text));
+			message.world.bus().publish(new SaidOutLoud(self, text));
 	}
 }
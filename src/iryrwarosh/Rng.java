@@ -0,0 +1,56 @@
+package iryrwarosh;
+
+import java.util.Random;
+
+// A seeded, unsynchronized SplitMix64 generator. Streams split by name or id are independent
+// and reproducible, so each subsystem and creature can draw from its own without contention.
+public class Rng extends Random {
+	private static final long serialVersionUID = 1L;
+	private static final long GOLDEN_GAMMA = 0x9e3779b97f4a7c15L;
+
+	private long seed;
+	public long seed() { return seed; }
+
+	private long state;
+
+	public Rng(long seed){
+		super(0);
+		this.seed = seed;
+		this.state = seed;
+	}
+
+	public Rng split(String name){
+		return split(name.hashCode());
+	}
+
+	public Rng split(long id){
+		return new Rng(mix(seed ^ mix(id + GOLDEN_GAMMA)));
+	}
+
+	// where it is in its stream, so a guess that drew from it can be taken back
+	long state(){
+		return state;
+	}
+
+	void state(long state){
+		this.state = state;
+	}
+
+	@Override
+	public void setSeed(long seed){
+		this.seed = seed;
+		this.state = seed;
+	}
+
+	@Override
+	protected int next(int bits){
+		state += GOLDEN_GAMMA;
+		return (int)(mix(state) >>> (64 - bits));
+	}
+
+	private static long mix(long z){
+		z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+		z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+		return z ^ (z >>> 31);
+	}
+}
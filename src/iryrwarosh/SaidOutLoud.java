@@ -2,10 +2,17 @@ package iryrwarosh;
 
 public class SaidOutLoud extends Message {
 	public Creature creature;
+	private String said;
 	
-	public SaidOutLoud(Creature creature, String text) {
-		super(null, creature.name() + ": " + text);
+	public SaidOutLoud(Creature creature, String said) {
+		super(null);
 		this.creature = creature;
+		this.said = said;
+	}
+
+	@Override
+	protected String describe() {
+		return creature.name() + ": " + said;
 	}
 
 	@Override
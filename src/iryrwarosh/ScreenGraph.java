@@ -0,0 +1,260 @@
+package iryrwarosh;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// The abstract graph for hierarchical pathfinding. Every opening between two neighboring screens
+// gets a node on each side of the border, and nodes in the same screen are joined by how many
+// steps apart they are. Only screens that have been made are in it; each new one is stitched
+// to its made neighbors as it's made, and a changed tile only redoes the screens either side of it.
+// Read only while creatures are planning.
+public class ScreenGraph {
+	private int movementClass;
+	private int height;
+	private int screensWide;
+	private int screensHigh;
+	private int size;
+	private Map<Integer,Integer> nodeAt;
+	private List<List<Integer>> crossings;
+	private int[] distance = new int[Chunk.WIDTH * Chunk.HEIGHT];
+	private int[] queue = new int[Chunk.WIDTH * Chunk.HEIGHT];
+
+	int[] cells;
+	int[][] edges;
+	int[][] costs;
+	int[][] nodesInScreen;
+
+	public ScreenGraph(World world, int movementClass){
+		this.movementClass = movementClass;
+		this.height = world.height();
+		this.screensWide = world.width() / Chunk.WIDTH;
+		this.screensHigh = world.height() / Chunk.HEIGHT;
+		this.nodeAt = new HashMap<Integer,Integer>();
+		this.crossings = new ArrayList<List<Integer>>();
+		this.cells = new int[64];
+		this.edges = new int[64][];
+		this.costs = new int[64][];
+		this.nodesInScreen = new int[screensWide * screensHigh][];
+		Arrays.fill(nodesInScreen, new int[0]);
+
+		for (int sx = 0; sx < screensWide; sx++)
+		for (int sy = 0; sy < screensHigh; sy++){
+			if (!world.isMade(sx, sy))
+				continue;
+			if (sx + 1 < screensWide && world.isMade(sx + 1, sy))
+				addOpenings(world, (sx + 1) * Chunk.WIDTH - 1, sy * Chunk.HEIGHT, 0, 1, Chunk.HEIGHT);
+			if (sy + 1 < screensHigh && world.isMade(sx, sy + 1))
+				addOpenings(world, sx * Chunk.WIDTH, (sy + 1) * Chunk.HEIGHT - 1, 1, 0, Chunk.WIDTH);
+		}
+
+		for (int screen = 0; screen < nodesInScreen.length; screen++)
+			linkScreen(world, screen);
+	}
+
+	public int movementClass() { return movementClass; }
+
+	public int size() { return size; }
+
+	int screenOf(int cell){
+		return (cell / height / Chunk.WIDTH) * screensHigh + (cell % height) / Chunk.HEIGHT;
+	}
+
+	int localIndex(int cell){
+		return (cell / height % Chunk.WIDTH) * Chunk.HEIGHT + (cell % height) % Chunk.HEIGHT;
+	}
+
+	void screenMade(World world, int sx, int sy){
+		if (sx > 0 && world.isMade(sx - 1, sy)){
+			addOpenings(world, sx * Chunk.WIDTH - 1, sy * Chunk.HEIGHT, 0, 1, Chunk.HEIGHT);
+			linkScreen(world, (sx - 1) * screensHigh + sy);
+		}
+		if (sx + 1 < screensWide && world.isMade(sx + 1, sy)){
+			addOpenings(world, (sx + 1) * Chunk.WIDTH - 1, sy * Chunk.HEIGHT, 0, 1, Chunk.HEIGHT);
+			linkScreen(world, (sx + 1) * screensHigh + sy);
+		}
+		if (sy > 0 && world.isMade(sx, sy - 1)){
+			addOpenings(world, sx * Chunk.WIDTH, sy * Chunk.HEIGHT - 1, 1, 0, Chunk.WIDTH);
+			linkScreen(world, sx * screensHigh + sy - 1);
+		}
+		if (sy + 1 < screensHigh && world.isMade(sx, sy + 1)){
+			addOpenings(world, sx * Chunk.WIDTH, (sy + 1) * Chunk.HEIGHT - 1, 1, 0, Chunk.WIDTH);
+			linkScreen(world, sx * screensHigh + sy + 1);
+		}
+		linkScreen(world, sx * screensHigh + sy);
+	}
+
+	// Redoes what a changed tile could have changed: the crossings over any border it's on, and
+	// how far apart the nodes are in the screens either side.
+	void tileChanged(World world, int x, int y){
+		int sx = x / Chunk.WIDTH;
+		int sy = y / Chunk.HEIGHT;
+		if (!world.isMade(sx, sy))
+			return;
+
+		if (x % Chunk.WIDTH == 0 && sx > 0 && world.isMade(sx - 1, sy)){
+			redoOpenings(world, sx * Chunk.WIDTH - 1, sy * Chunk.HEIGHT, 0, 1, Chunk.HEIGHT);
+			linkScreen(world, (sx - 1) * screensHigh + sy);
+		}
+		if (x % Chunk.WIDTH == Chunk.WIDTH - 1 && sx + 1 < screensWide && world.isMade(sx + 1, sy)){
+			redoOpenings(world, (sx + 1) * Chunk.WIDTH - 1, sy * Chunk.HEIGHT, 0, 1, Chunk.HEIGHT);
+			linkScreen(world, (sx + 1) * screensHigh + sy);
+		}
+		if (y % Chunk.HEIGHT == 0 && sy > 0 && world.isMade(sx, sy - 1)){
+			redoOpenings(world, sx * Chunk.WIDTH, sy * Chunk.HEIGHT - 1, 1, 0, Chunk.WIDTH);
+			linkScreen(world, sx * screensHigh + sy - 1);
+		}
+		if (y % Chunk.HEIGHT == Chunk.HEIGHT - 1 && sy + 1 < screensHigh && world.isMade(sx, sy + 1)){
+			redoOpenings(world, sx * Chunk.WIDTH, (sy + 1) * Chunk.HEIGHT - 1, 1, 0, Chunk.WIDTH);
+			linkScreen(world, sx * screensHigh + sy + 1);
+		}
+		linkScreen(world, sx * screensHigh + sy);
+	}
+
+	// Forgets the crossings over one border and finds them again. Nodes left with no crossing
+	// are taken out of their screen; node() puts them back if a crossing opens there later.
+	private void redoOpenings(World world, int x, int y, int dx, int dy, int length){
+		for (int i = 0; i < length; i++){
+			Integer near = nodeAt.get((x + dx * i) * height + y + dy * i);
+			Integer far = nodeAt.get((x + dx * i + dy) * height + y + dy * i + dx);
+			if (near == null || far == null)
+				continue;
+
+			crossings.get(near).remove(far);
+			crossings.get(far).remove(near);
+		}
+
+		addOpenings(world, x, y, dx, dy, length);
+
+		for (int i = 0; i < length; i++){
+			dropIfUnused(nodeAt.get((x + dx * i) * height + y + dy * i));
+			dropIfUnused(nodeAt.get((x + dx * i + dy) * height + y + dy * i + dx));
+		}
+	}
+
+	private void dropIfUnused(Integer node){
+		if (node == null || !crossings.get(node).isEmpty())
+			return;
+
+		int screen = screenOf(cells[node]);
+		int[] nodes = nodesInScreen[screen];
+		for (int i = 0; i < nodes.length; i++){
+			if (nodes[i] != node)
+				continue;
+
+			int[] fewer = Arrays.copyOf(nodes, nodes.length - 1);
+			System.arraycopy(nodes, i + 1, fewer, i, nodes.length - i - 1);
+			nodesInScreen[screen] = fewer;
+			edges[node] = new int[0];
+			costs[node] = new int[0];
+			return;
+		}
+	}
+
+	// Each run of open tiles along the border between two screens becomes one crossing, at its middle.
+	private void addOpenings(World world, int x, int y, int dx, int dy, int length){
+		int runStart = -1;
+		for (int i = 0; i <= length; i++){
+			boolean open = i < length
+					&& world.isPassable(movementClass, x + dx * i, y + dy * i)
+					&& world.isPassable(movementClass, x + dx * i + dy, y + dy * i + dx);
+
+			if (open && runStart == -1)
+				runStart = i;
+
+			if (open || runStart == -1)
+				continue;
+
+			int middle = (runStart + i - 1) / 2;
+			int near = node(x + dx * middle, y + dy * middle);
+			int far = node(x + dx * middle + dy, y + dy * middle + dx);
+			crossings.get(near).add(far);
+			crossings.get(far).add(near);
+			runStart = -1;
+		}
+	}
+
+	private int node(int x, int y){
+		int cell = x * height + y;
+		int screen = screenOf(cell);
+		Integer node = nodeAt.get(cell);
+
+		if (node == null){
+			if (size == cells.length){
+				cells = Arrays.copyOf(cells, size * 2);
+				edges = Arrays.copyOf(edges, size * 2);
+				costs = Arrays.copyOf(costs, size * 2);
+			}
+			cells[size] = cell;
+			crossings.add(new ArrayList<Integer>());
+			node = size++;
+			nodeAt.put(cell, node);
+		} else {
+			for (int other : nodesInScreen[screen])
+				if (other == node)
+					return node;
+		}
+
+		nodesInScreen[screen] = Arrays.copyOf(nodesInScreen[screen], nodesInScreen[screen].length + 1);
+		nodesInScreen[screen][nodesInScreen[screen].length - 1] = node;
+		return node;
+	}
+
+	// Redoes the edges of every node in a screen: its crossings plus the steps to each other node there.
+	private void linkScreen(World world, int screen){
+		for (int node : nodesInScreen[screen]){
+			int x = cells[node] / height;
+			int y = cells[node] % height;
+			distancesInScreen(world, movementClass, x, y, distance, queue);
+
+			List<Integer> across = crossings.get(node);
+			int[] nodeEdges = new int[across.size() + nodesInScreen[screen].length];
+			int[] nodeCosts = new int[nodeEdges.length];
+			int count = 0;
+
+			for (int other : across){
+				nodeEdges[count] = other;
+				nodeCosts[count++] = 1;
+			}
+			for (int other : nodesInScreen[screen]){
+				int d = distance[localIndex(cells[other])];
+				if (other != node && d > 0){
+					nodeEdges[count] = other;
+					nodeCosts[count++] = d;
+				}
+			}
+			edges[node] = Arrays.copyOf(nodeEdges, count);
+			costs[node] = Arrays.copyOf(nodeCosts, count);
+		}
+	}
+
+	// Steps from (x, y) to every tile of its screen without leaving it; 0 for the start and -1 where it can't get to.
+	static void distancesInScreen(World world, int movementClass, int x, int y, int[] distance, int[] queue){
+		int left = x / Chunk.WIDTH * Chunk.WIDTH;
+		int top = y / Chunk.HEIGHT * Chunk.HEIGHT;
+
+		Arrays.fill(distance, -1);
+		int head = 0;
+		int tail = 0;
+		distance[(x - left) * Chunk.HEIGHT + (y - top)] = 0;
+		queue[tail++] = (x - left) * Chunk.HEIGHT + (y - top);
+
+		while (head < tail){
+			int current = queue[head++];
+			int cx = current / Chunk.HEIGHT;
+			int cy = current % Chunk.HEIGHT;
+
+			for (int nx = Math.max(0, cx - 1); nx <= Math.min(Chunk.WIDTH - 1, cx + 1); nx++)
+			for (int ny = Math.max(0, cy - 1); ny <= Math.min(Chunk.HEIGHT - 1, cy + 1); ny++){
+				int next = nx * Chunk.HEIGHT + ny;
+				if (distance[next] != -1 || !world.isPassable(movementClass, left + nx, top + ny))
+					continue;
+
+				distance[next] = distance[current] + 1;
+				queue[tail++] = next;
+			}
+		}
+	}
+}
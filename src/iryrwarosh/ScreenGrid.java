@@ -0,0 +1,82 @@
+package iryrwarosh;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+// A number for every tile, indexed x * height + y like everywhere else, but kept a screen at a
+// time like Chunk and only for the screens something has been written to. The rest read as 0.
+class ScreenGrid {
+	private static final int CELLS = Chunk.WIDTH * Chunk.HEIGHT;
+
+	private int height;
+	private int screensHigh;
+	private int[][] screens;
+	private int[] written = new int[16];
+	private int writtenCount;
+	private List<int[]> spare = new ArrayList<int[]>();
+
+	ScreenGrid(int width, int height){
+		this.height = height;
+		this.screensHigh = height / Chunk.HEIGHT;
+		this.screens = new int[(width / Chunk.WIDTH) * screensHigh][];
+	}
+
+	int get(int index){
+		int x = index / height;
+		int y = index - x * height;
+		int[] screen = screens[(x / Chunk.WIDTH) * screensHigh + y / Chunk.HEIGHT];
+		return screen == null ? 0 : screen[(x % Chunk.WIDTH) * Chunk.HEIGHT + y % Chunk.HEIGHT];
+	}
+
+	void set(int index, int value){
+		int x = index / height;
+		int y = index - x * height;
+		screen(x, y)[(x % Chunk.WIDTH) * Chunk.HEIGHT + y % Chunk.HEIGHT] = value;
+	}
+
+	void add(int index, int amount){
+		int x = index / height;
+		int y = index - x * height;
+		screen(x, y)[(x % Chunk.WIDTH) * Chunk.HEIGHT + y % Chunk.HEIGHT] += amount;
+	}
+
+	// zeroes one screen, without making it if it isn't there
+	void clearScreen(int sx, int sy){
+		int[] screen = screens[sx * screensHigh + sy];
+		if (screen != null)
+			Arrays.fill(screen, 0);
+	}
+
+	// Everything reads as 0 again and the screens are kept for reuse, so a buffer that's cleared
+	// before each search only ever holds the screens one search went through.
+	void clear(){
+		for (int i = 0; i < writtenCount; i++){
+			int[] screen = screens[written[i]];
+			Arrays.fill(screen, 0);
+			spare.add(screen);
+			screens[written[i]] = null;
+		}
+		writtenCount = 0;
+	}
+
+	private int[] screen(int x, int y){
+		int index = (x / Chunk.WIDTH) * screensHigh + y / Chunk.HEIGHT;
+		int[] screen = screens[index];
+
+		if (screen == null){
+			screen = spare.isEmpty() ? new int[CELLS] : spare.remove(spare.size() - 1);
+			screens[index] = screen;
+
+			if (writtenCount == written.length)
+				written = Arrays.copyOf(written, writtenCount * 2);
+			written[writtenCount++] = index;
+		}
+		return screen;
+	}
+
+	// for queues that only need to be as long as the search that uses them
+	static int[] grow(int[] queue){
+		return Arrays.copyOf(queue, queue.length * 2);
+	}
+}
@@ -1,6 +1,7 @@
 package iryrwarosh;
 
 import java.awt.Color;
+import java.util.Random;
 
 import asciiPanel.AsciiPanel;
 
@@ -43,7 +44,7 @@ public enum Tile {
     LAVA3       (247, Common.hsv(  0, 68, 71), Common.hsv(  0, 75, 18), "lava"),
     OUT_OF_BOUNDS ('x', AsciiPanel.brightBlack, AsciiPanel.black, "OUT OF BOUNDS");
 
-	public Tile variation(int x, int y){
+	public Tile variation(int x, int y, Random random){
 		Tile[] varieties = null;
 		
 		switch (this){
@@ -98,7 +99,7 @@ public enum Tile {
 		if (varieties == null)
 			return this;
 		else 
-			return varieties[(int)(Math.random() * varieties.length)];
+			return varieties[random.nextInt(varieties.length)];
 	}
 	
 
@@ -121,29 +122,80 @@ public enum Tile {
 		this.description = description;
 	}
 
+	static final int WATER = 1, GROUND = 2, SWIMMABLE = 4, FLYABLE = 8, LAVA = 16, HIDEABLE = 32;
+	
+	// movement classes are any combination of these
+	public static final int WALK = 1, SWIM = 2, FLY = 4, MOVEMENT_CLASSES = 8;
+	
+	private int flags;
+	int flags() { return flags; }
+	
+	private int passableBy;
+	
+	public boolean canBeEnteredBy(int movementClass){
+		return (passableBy & (1 << movementClass)) != 0;
+	}
+	
+	static {
+		for (Tile tile : values()){
+			tile.flags = tile.computeFlags();
+			
+			for (int movementClass = 0; movementClass < MOVEMENT_CLASSES; movementClass++){
+				if ((movementClass & WALK) != 0 && tile.isGround()
+						|| (movementClass & SWIM) != 0 && tile.isSwimmable()
+						|| (movementClass & FLY) != 0 && tile.isFlyable())
+					tile.passableBy |= 1 << movementClass;
+			}
+		}
+	}
+	
+	private int computeFlags(){
+		int flags = 0;
+		
+		if (this == WATER1 || this == WATER2 || this == WATER3)
+			flags |= WATER | SWIMMABLE;
+		
+		if (this == GREEN_DIRT || this == BROWN_DIRT || this == WHITE_DIRT 
+				  || this == DESERT_SAND1 || this == DESERT_SAND2 || this == DESERT_SAND3
+				  || this == BRIDGE || this == WHITE_TILE1 || this == WHITE_TILE2)
+			flags |= GROUND;
+		
+		if (this == BRIDGE)
+			flags |= SWIMMABLE;
+		
+		if (this != OUT_OF_BOUNDS && this != WHITE_WALL)
+			flags |= FLYABLE;
+		
+		if (this == LAVA1 || this == LAVA2 || this == LAVA3)
+			flags |= LAVA;
+		
+		if ((flags & FLYABLE) != 0 && this != WHITE_TILE1 && this != WHITE_TILE2)
+			flags |= HIDEABLE;
+		
+		return flags;
+	}
+
 	public boolean isWater() {
-		return this == WATER1 || this == WATER2 || this == WATER3;
+		return (flags & WATER) != 0;
 	}
 
 	public boolean isGround() {
-		return this == GREEN_DIRT || this == BROWN_DIRT || this == WHITE_DIRT 
-		  || this == DESERT_SAND1 || this == DESERT_SAND2 || this == DESERT_SAND3
-		  || this == BRIDGE || this == WHITE_TILE1 || this == WHITE_TILE2;
+		return (flags & GROUND) != 0;
 	}
 
 	public boolean isSwimmable() {
-		return isWater() || this == BRIDGE;
+		return (flags & SWIMMABLE) != 0;
 	}
 	
 	public boolean isFlyable(){
-		return this != OUT_OF_BOUNDS && this != WHITE_WALL;
+		return (flags & FLYABLE) != 0;
 	}
 
 	public boolean isLava() {
-		return this == LAVA1 || this == LAVA2 || this == LAVA3;
+		return (flags & LAVA) != 0;
 	}
 
 	public boolean canHideIn() {
-		return this.isFlyable() && this != WHITE_TILE1 && this != WHITE_TILE2; 
+		return (flags & HIDEABLE) != 0; 
 	}
 }
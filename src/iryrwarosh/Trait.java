@@ -1,5 +1,7 @@
 package iryrwarosh;
 
+import java.util.Random;
+
 public enum Trait {
 	WALKER("walker"), SWIMMER("swimmer"), FLIER("flier"), JUMPER("jumper"),
 	EXTRA_HP("healty"), STRONG_ATTACK("strong"), EXTRA_EVADE("evasive"),EXTRA_DEFENSE("shelled"),
@@ -15,11 +17,15 @@ public enum Trait {
 	private String description;
 	public String description() { return description; }
 	
+	private long bit;
+	public long bit() { return bit; }
+	
 	Trait(String description){
 		this.description = description;
+		this.bit = 1L << ordinal();
 	}
 	
-	public static Trait getRandom() {
-		return Trait.values()[(int)(Math.random() * Trait.values().length)];
+	public static Trait getRandom(Random random) {
+		return Trait.values()[random.nextInt(Trait.values().length)];
 	}
 }
@@ -2,12 +2,19 @@ package iryrwarosh;
 
 public class Unhid extends Message {
 	public Creature creature;
+	private Tile tile;
 	
 	public Unhid(World world, Creature creature){
-		super(world, "The " + creature.name() + " came out of the " + world.tile(creature.position.x, creature.position.y).description() + ".");
+		super(world);
 		this.creature = creature;
+		this.tile = world.tile(creature.position.x, creature.position.y);
 	}
 	
+	@Override
+	protected String describe() {
+		return "The " + creature.name() + " came out of the " + tile.description() + ".";
+	}
+
 	@Override
 	public boolean involves(Creature player) {
 		return creature == player || player.canSee(creature);
@@ -1,68 +1,475 @@
 package iryrwarosh;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
 
 public class World {
 	private WorldMap map;
-	private Tile[][] tiles;
+	
+	private Rng random;
+	private Map<String,Rng> streams;
+	private MessageBus bus;
+	private int creaturesAdded;
+	private static final ExecutorService workers = new ForkJoinPool(); // plans moves and makes screens
+	
+	// one per screen, so anything about a place is found by its screen first
+	private Chunk[][] chunks;
+	private Worldgen generator;
+	private int screensMade;
+	private boolean planning;
+	private int width;
+	private int height;
 	
 	private List<Creature> creatures;
 	public List<Creature> creatures() { return creatures; }
 	
-	private Item[][] items;
-	private List<Item> itemList;
+	private List<Item> itemsToUpdate;
 	
 	private List<Projectile> projectiles;
 	public List<Projectile> projectiles() { return projectiles; }
 	
-	public int width() { return tiles.length; }
+	private List<Creature> anchors;
+	private boolean useActivityZones;
+	private boolean[][] activeScreens;
+	private int[][] awakeUntil;
+	private int turn;
+	
+	private InfluenceMap[] influence;
+	private ScreenGraph[] screenGraphs;
+	private Regions regions;
+	private Map<Creature,FlowField[]> flowFields;
+	
+	// creatures and items for screens that haven't been made yet, put there when the screen is
+	private Map<Integer,List<Creature>> creaturesWaiting;
+	private Map<Integer,List<Pair<Item,Point>>> itemsWaiting;
+	
+	// Where things have changed since the rivals planned their moves, so a plan can tell if it's out of date.
+	// A new screen or tile could be anywhere a search goes, so those count as a change everywhere.
+	private int[] changes;
+	private int changeCount;
+	private boolean changedEverywhere;
+	private int plans;
+	
+	// how many times each planning thread has looked at a screen that isn't made yet
+	private final ThreadLocal<int[]> unmadeLookups = new ThreadLocal<int[]>(){
+		protected int[] initialValue(){
+			return new int[1];
+		}
+	};
 	
-	public int height() { return tiles[0].length; }
+	public void useActivityZones(boolean value) { useActivityZones = value; }
 	
-	public World(Tile[][] tiles, WorldMap map){
-		this.tiles = tiles;
+	public int width() { return width; }
+	
+	public int height() { return height; }
+	
+	public World(Worldgen generator, WorldMap map, Rng random){
+		this.generator = generator;
+		this.chunks = new Chunk[map.width()][map.height()];
+		this.width = map.width() * Chunk.WIDTH;
+		this.height = map.height() * Chunk.HEIGHT;
 		this.map = map;
+		this.random = random;
+		this.streams = new HashMap<String,Rng>();
+		this.bus = new MessageBus();
 		this.creatures = new ArrayList<Creature>();
-		this.items = new Item[tiles.length][tiles[0].length];
-		this.itemList = new ArrayList<Item>();
+		this.itemsToUpdate = new ArrayList<Item>();
 		this.projectiles = new ArrayList<Projectile>();
+		this.anchors = new ArrayList<Creature>();
+		this.activeScreens = new boolean[map.width()][map.height()];
+		this.awakeUntil = new int[map.width()][map.height()];
+		this.influence = new InfluenceMap[Tile.MOVEMENT_CLASSES];
+		this.screenGraphs = new ScreenGraph[Tile.MOVEMENT_CLASSES];
+		this.regions = new Regions(this);
+		this.flowFields = new HashMap<Creature,FlowField[]>();
+		this.changes = new int[256];
+		this.creaturesWaiting = new HashMap<Integer,List<Creature>>();
+		this.itemsWaiting = new HashMap<Integer,List<Pair<Item,Point>>>();
+	}
+	
+	// everything that happens in this world is published here, and only here
+	public MessageBus bus(){
+		return bus;
 	}
 	
 	public WorldMap map(){
 		return map;
 	}
 	
+	public Rng random(String subsystem){
+		Rng stream = streams.get(subsystem);
+		
+		if (stream == null){
+			stream = random.split(subsystem);
+			streams.put(subsystem, stream);
+		}
+		return stream;
+	}
+	
+	// The chunk for a screen, making its tiles the first time anything looks there. Rivals plan on
+	// other threads and can't make screens, so to them the ones nobody has been near are just walls.
+	Chunk chunk(int sx, int sy){
+		Chunk chunk = chunks[sx][sy];
+		
+		if (chunk == null){
+			if (planning){
+				unmadeLookups.get()[0]++;
+				return Chunk.UNMADE;
+			}
+			
+			chunk = generator.makeScreen(sx, sy);
+			install(chunk, sx, sy);
+		}
+		return chunk;
+	}
+	
+	// Makes whichever of these screens aren't made yet, all at once on the workers. They're added
+	// in the order given so the regions and screen graphs number things the same way every time.
+	void makeScreens(List<Point> screens){
+		List<Point> unmade = new ArrayList<Point>();
+		boolean[][] listed = new boolean[chunks.length][chunks[0].length];
+		
+		for (Point screen : screens){
+			if (isMade(screen.x, screen.y) || listed[screen.x][screen.y])
+				continue;
+			
+			listed[screen.x][screen.y] = true;
+			unmade.add(screen);
+		}
+		
+		if (unmade.size() == 0)
+			return;
+		
+		Chunk[] made = generator.makeScreens(unmade, workers);
+		for (int i = 0; i < made.length; i++)
+			install(made[i], unmade.get(i).x, unmade.get(i).y);
+	}
+	
+	// for when creatures are going everywhere anyway, so there's no point waiting to be asked
+	public void makeAllScreens(){
+		List<Point> screens = new ArrayList<Point>();
+		for (int sx = 0; sx < chunks.length; sx++)
+		for (int sy = 0; sy < chunks[0].length; sy++)
+			screens.add(new Point(sx, sy));
+		
+		makeScreens(screens);
+	}
+	
+	private void install(Chunk chunk, int sx, int sy){
+		chunks[sx][sy] = chunk;
+		screensMade++;
+		changedEverywhere = true;
+		regions.screenMade(chunk, sx, sy);
+		
+		for (ScreenGraph graph : screenGraphs)
+			if (graph != null)
+				graph.screenMade(this, sx, sy);
+		
+		List<Creature> creatures = creaturesWaiting.remove(sx * chunks[0].length + sy);
+		if (creatures != null)
+			for (Creature creature : creatures)
+				addToScreen(creature, sx, sy);
+		
+		List<Pair<Item,Point>> items = itemsWaiting.remove(sx * chunks[0].length + sy);
+		if (items != null){
+			for (Pair<Item,Point> pair : items){
+				if (pair.second == null)
+					addToScreen(pair.first, sx, sy);
+				else
+					add(pair.first, pair.second.x, pair.second.y);
+			}
+		}
+	}
+	
+	private <T> void putOff(Map<Integer,List<T>> waiting, T thing, int sx, int sy){
+		List<T> here = waiting.get(sx * chunks[0].length + sy);
+		if (here == null){
+			here = new ArrayList<T>();
+			waiting.put(sx * chunks[0].length + sy, here);
+		}
+		here.add(thing);
+	}
+	
+	boolean isMade(int sx, int sy){
+		return chunks[sx][sy] != null;
+	}
+	
+	boolean isEverythingMade(){
+		return screensMade == chunks.length * chunks[0].length;
+	}
+	
+	private Chunk chunkAt(int x, int y){
+		return chunk(x / Chunk.WIDTH, y / Chunk.HEIGHT);
+	}
+	
 	public Tile tile(int x, int y){
-		if (x < 0 || x >= tiles.length || y < 0 || y >= tiles[0].length)
+		if (x < 0 || x >= width || y < 0 || y >= height)
 			return Tile.OUT_OF_BOUNDS;
 		else
-			return tiles[x][y];
+			return chunkAt(x, y).tile(x - x / Chunk.WIDTH * Chunk.WIDTH, y - y / Chunk.HEIGHT * Chunk.HEIGHT);
  	}
 	
+	public boolean isPassable(int movementClass, int x, int y){
+		if (x < 0 || x >= width || y < 0 || y >= height)
+			return false;
+		else
+			return chunkAt(x, y).isPassable(movementClass, x - x / Chunk.WIDTH * Chunk.WIDTH, y - y / Chunk.HEIGHT * Chunk.HEIGHT);
+	}
+	
+	public boolean reachable(Point from, Point to, int movementClass){
+		return regions.reachable(movementClass, from.x, from.y, to.x, to.y);
+	}
+	
 	public Item item(int x, int y){
-		if (x < 0 || x >= tiles.length || y < 0 || y >= tiles[0].length)
+		if (x < 0 || x >= width || y < 0 || y >= height)
 			return null;
-		else
-			return items[x][y];
+		
+		Map<Integer,Item> bucket = itemsAt(x, y, false);
+		return bucket == null ? null : bucket.get(packed(x, y));
  	}
 	
+	private static Integer packed(int x, int y){
+		return (x << 16) | y;
+	}
+	
+	private Map<Integer,Item> itemsAt(int x, int y, boolean create){
+		if (!create && !isMade(x / Chunk.WIDTH, y / Chunk.HEIGHT))
+			return null;
+		
+		return chunkAt(x, y).items(create);
+	}
+	
+	private void putItem(Item item, int x, int y){
+		Item replaced = itemsAt(x, y, true).put(packed(x, y), item);
+		if (replaced != null)
+			InfluenceMap.itemChanged(influence, replaced, x, y);
+		InfluenceMap.itemChanged(influence, item, x, y);
+		changed(x, y);
+	}
+	
 	public Creature creature(int x, int y){
-		for (Creature c : creatures)
+		if (x < 0 || x >= width || y < 0 || y >= height)
+			return null;
+		
+		int sx = x / Chunk.WIDTH;
+		int sy = y / Chunk.HEIGHT;
+		Chunk chunk = chunks[sx][sy];
+		if (chunk == null)
+			return null;
+		
+		for (Creature c = chunk.occupant(x - sx * Chunk.WIDTH, y - sy * Chunk.HEIGHT); c != null; c = c.nextOccupant)
     		if (c.position.x == x && c.position.y == y)
     			return c;
 		
 		return null;
 	}
 	
+	public void move(Creature creature, int x, int y){
+		boolean changesScreen = x / Chunk.WIDTH != creature.position.x / Chunk.WIDTH || y / Chunk.HEIGHT != creature.position.y / Chunk.HEIGHT;
+		
+		removeOccupant(creature);
+		creature.position.x = x;
+		creature.position.y = y;
+		addOccupant(creature);
+		
+		if (changesScreen)
+			wake(x, y);
+	}
+	
+	private void addOccupant(Creature creature){
+		int x = creature.position.x;
+		int y = creature.position.y;
+		
+		if (x < 0 || x >= width || y < 0 || y >= height)
+			return;
+		
+		Chunk chunk = chunkAt(x, y);
+		creature.nextOccupant = null;
+		chunk.creatures().add(creature);
+		InfluenceMap.creatureChanged(influence, creature, x, y);
+		changed(x, y);
+		
+		Creature last = chunk.occupant(x % Chunk.WIDTH, y % Chunk.HEIGHT);
+		if (last == null) {
+			chunk.setOccupant(x % Chunk.WIDTH, y % Chunk.HEIGHT, creature);
+			return;
+		}
+		
+		while (last.nextOccupant != null)
+			last = last.nextOccupant;
+		last.nextOccupant = creature;
+	}
+	
+	private void removeOccupant(Creature creature){
+		int x = creature.position.x;
+		int y = creature.position.y;
+		
+		if (x < 0 || x >= width || y < 0 || y >= height)
+			return;
+		
+		Chunk chunk = chunkAt(x, y);
+		Creature first = chunk.occupant(x % Chunk.WIDTH, y % Chunk.HEIGHT);
+		if (first == creature) {
+			chunk.setOccupant(x % Chunk.WIDTH, y % Chunk.HEIGHT, creature.nextOccupant);
+		} else {
+			for (Creature c = first; c != null; c = c.nextOccupant){
+				if (c.nextOccupant == creature){
+					c.nextOccupant = creature.nextOccupant;
+					break;
+				}
+			}
+		}
+		creature.nextOccupant = null;
+		chunk.creatures().remove(creature);
+		InfluenceMap.creatureChanged(influence, creature, x, y);
+		changed(x, y);
+	}
+	
+	// the live index, for readers that won't hold on to it or change the world while iterating
+	List<Creature> screenOccupants(int sx, int sy){
+		return isMade(sx, sy) ? chunks[sx][sy].creatures() : Chunk.UNMADE.creatures();
+	}
+	
+	Map<Integer,Item> screenItems(int sx, int sy){
+		return isMade(sx, sy) ? chunks[sx][sy].items(false) : null;
+	}
+	
+	// Something about (x, y) changed: what's there, or how many hearts whoever's there has.
+	void changed(int x, int y){
+		if (x < 0 || x >= width || y < 0 || y >= height)
+			return;
+		
+		if (changeCount == changes.length)
+			changes = ScreenGrid.grow(changes);
+		changes[changeCount++] = x << 16 | y;
+	}
+	
+	// which time the rivals planned, so a plan from an earlier turn isn't taken for this one's
+	int plans(){
+		return plans;
+	}
+	
+	boolean changedSincePlanning(int x, int y, int distance){
+		if (changedEverywhere)
+			return true;
+		
+		for (int i = 0; i < changeCount; i++){
+			if (Math.abs((changes[i] >> 16) - x) <= distance && Math.abs((changes[i] & 0xFFFF) - y) <= distance)
+				return true;
+		}
+		return false;
+	}
+	
+	int unmadeLookups(){
+		return unmadeLookups.get()[0];
+	}
+	
+	// Shared threat and attraction for creatures that move like this one, up to date around it.
+	public InfluenceMap influence(Creature creature){
+		InfluenceMap found = influence[creature.movementClass()];
+		
+		if (found == null){
+			found = new InfluenceMap(creature.movementClass(), width, height);
+			influence[creature.movementClass()] = found;
+		}
+		
+		found.refreshAround(this, creature.position.x, creature.position.y);
+		return found;
+	}
+	
+	// How the screens connect for creatures that move this way, for planning long trips.
+	public ScreenGraph screenGraph(int movementClass){
+		if (screenGraphs[movementClass] == null)
+			screenGraphs[movementClass] = new ScreenGraph(this, movementClass);
+		
+		return screenGraphs[movementClass];
+	}
+	
+	// The way to a creature that's being hunted, shared by all its hunters that move this way.
+	public FlowField flowField(Creature target, int movementClass){
+		FlowField[] fields = flowFields.get(target);
+		
+		if (fields == null){
+			fields = new FlowField[Tile.MOVEMENT_CLASSES];
+			flowFields.put(target, fields);
+		}
+		
+		if (fields[movementClass] == null)
+			fields[movementClass] = new FlowField(movementClass, width, height);
+		
+		fields[movementClass].refresh(this, target.position);
+		return fields[movementClass];
+	}
+	
+	public List<Creature> creaturesInScreen(int sx, int sy){
+		if (sx < 0 || sx >= chunks.length || sy < 0 || sy >= chunks[0].length)
+			return new ArrayList<Creature>();
+		
+		return new ArrayList<Creature>(screenOccupants(sx, sy));
+	}
+	
+	public List<Creature> creaturesInRectangle(int left, int top, int width, int height){
+		List<Creature> found = new ArrayList<Creature>();
+		int right = left + width - 1;
+		int bottom = top + height - 1;
+		
+		for (int sx = Math.max(0, left / Chunk.WIDTH); sx <= Math.min(chunks.length - 1, right / Chunk.WIDTH); sx++)
+		for (int sy = Math.max(0, top / Chunk.HEIGHT); sy <= Math.min(chunks[0].length - 1, bottom / Chunk.HEIGHT); sy++){
+			if (chunks[sx][sy] == null)
+				continue;
+			
+			for (Creature c : chunks[sx][sy].creatures()){
+				if (c.position.x >= left && c.position.x <= right 
+						&& c.position.y >= top && c.position.y <= bottom)
+					found.add(c);
+			}
+		}
+		
+		return found;
+	}
+	
+	// creatures whose distanceTo the point is less than radius, like canSee and canHear
+	public List<Creature> creaturesWithin(Point center, int radius){
+		if (center.x < 0 || center.x >= width || center.y < 0 || center.y >= height){
+			List<Creature> found = new ArrayList<Creature>();
+			for (Creature c : creatures)
+				if (center.distanceTo(c.position) < radius)
+					found.add(c);
+			return found;
+		}
+		
+		return creaturesInRectangle(center.x - radius + 1, center.y - radius + 1, radius * 2 - 1, radius * 2 - 1);
+	}
+	
+    // Messages published during the update are handed out at a few points along the way rather
+    // than where they're published; see MessageBus.
     public void update(){
-    	updateLava();
-    	updateWater();
+    	bus.startBatching();
+    	turn++;
+    	updateActiveScreens();
     	
-    	List<Item> itemsToUpdate = new ArrayList<Item>();
-    	itemsToUpdate.addAll(itemList);
+    	for (int sx = 0; sx < activeScreens.length; sx++)
+    	for (int sy = 0; sy < activeScreens[0].length; sy++){
+    		if (!activeScreens[sx][sy] || !isMade(sx, sy))
+    			continue;
+    		updateLava(sx, sy);
+    		updateWater(sx, sy);
+    	}
+    	
+    	itemsToUpdate.clear();
+    	for (int sx = 0; sx < chunks.length; sx++)
+    	for (int sy = 0; sy < chunks[0].length; sy++)
+    		if (chunks[sx][sy] != null && chunks[sx][sy].items(false) != null)
+    			itemsToUpdate.addAll(chunks[sx][sy].items(false).values());
     	for (Item item : itemsToUpdate)
     		item.update(this, null);
+    	itemsToUpdate.clear();
     	
     	List<Projectile> stillFlying = new ArrayList<Projectile>();
     	for (Projectile p : projectiles){
@@ -79,118 +486,315 @@ public class World {
     			stillFlying.add(p);
     	}
     	projectiles = stillFlying;
+    	bus.drain();
     	
     	List<Creature> toUpdate = new ArrayList<Creature>();
     	toUpdate.addAll(creatures);
-    	for (Creature c : toUpdate)
+    	planMoves(toUpdate);
+    	for (Creature c : toUpdate){
+    		if (c.hearts() < 1 || !isActive(c))
+    			continue;
+    		
+    		if (c.lastUpdatedTurn < turn - 1)
+    			c.catchUp(this, turn - 1 - c.lastUpdatedTurn);
+    		
+    		c.lastUpdatedTurn = turn;
     		if (c.hearts() > 0)
     			c.update(this);
+    		bus.drain(); // before the next creature goes, so it goes against what this one's moves led to
+    	}
+    	bus.drain(); // before the dead are taken away, so whoever hears about them can still find them
     	
     	List<Creature> stillAlive = new ArrayList<Creature>();
     	
-    	for (Creature c : creatures)
+    	for (Creature c : creatures){
     		if (c.hearts() > 0)
     			stillAlive.add(c);
+    		else {
+    			removeOccupant(c);
+    			anchors.remove(c);
+    			flowFields.remove(c);
+    		}
+    	}
     	
     	creatures = stillAlive;
+    	bus.stopBatching();
+    }
+    
+    // Rivals decide where to go in parallel, against the world as it is before anyone moves;
+    // the moves themselves are then made one at a time in the usual order. A rival that something
+    // changed near by then decides again when its turn comes.
+    private void planMoves(List<Creature> toUpdate){
+    	List<Callable<Object>> plans = new ArrayList<Callable<Object>>();
+    	List<Creature> planners = new ArrayList<Creature>();
+    	List<Point> screens = new ArrayList<Point>();
+    	
+    	for (Creature c : toUpdate){
+    		if (c.hearts() < 1 || c.ai() == null || !isActive(c))
+    			continue;
+    		
+    		planners.add(c);
+    		addScreensAround(c, screens);
+    	}
+    	makeScreens(screens);
+    	
+    	for (final Creature c : planners){
+    		influence(c); // brought up to date here so planning only reads them
+    		screenGraph(c.movementClass());
+    		
+    		plans.add(Executors.callable(new Runnable(){
+    			public void run(){
+    				c.ai().plan(World.this, c);
+    			}
+    		}));
+    	}
+    	
+    	changeCount = 0;
+    	changedEverywhere = false;
+    	this.plans++;
+    	
+    	if (plans.size() == 0)
+    		return;
+    	
+    	planning = true;
+    	try {
+    		workers.invokeAll(plans);
+    	} catch (InterruptedException e) {
+    		Thread.currentThread().interrupt();
+    	} finally {
+    		planning = false;
+    	}
+    }
+    
+    private void addScreensAround(Creature creature, List<Point> screens){
+    	int cx = creature.position.x / Chunk.WIDTH;
+    	int cy = creature.position.y / Chunk.HEIGHT;
+    	
+    	for (int sx = Math.max(0, cx - 1); sx <= Math.min(chunks.length - 1, cx + 1); sx++)
+    	for (int sy = Math.max(0, cy - 1); sy <= Math.min(chunks[0].length - 1, cy + 1); sy++)
+    		if (!isMade(sx, sy))
+    			screens.add(new Point(sx, sy));
+    }
+    
+    private void updateActiveScreens(){
+    	for (int sx = 0; sx < activeScreens.length; sx++)
+    	for (int sy = 0; sy < activeScreens[0].length; sy++)
+    		activeScreens[sx][sy] = !useActivityZones || awakeUntil[sx][sy] >= turn;
+    	
+    	if (!useActivityZones)
+    		return;
+    	
+    	// the player sees about 4 by 2 screens around them, rivals only react within a screen
+    	for (Creature anchor : anchors){
+    		if (anchor.isHidden())
+    			continue;
+    		
+    		int rangeX = anchor.isPlayer() ? 3 : 1;
+    		int rangeY = anchor.isPlayer() ? 2 : 1;
+    		int ax = anchor.position.x / Chunk.WIDTH;
+    		int ay = anchor.position.y / Chunk.HEIGHT;
+    		
+    		for (int sx = Math.max(0, ax - rangeX); sx <= Math.min(activeScreens.length - 1, ax + rangeX); sx++)
+    		for (int sy = Math.max(0, ay - rangeY); sy <= Math.min(activeScreens[0].length - 1, ay + rangeY); sy++)
+    			activeScreens[sx][sy] = true;
+    	}
     }
     
-    private void updateLava() {
-    	for (int x = 0; x < tiles.length; x++)
-        for (int y = 0; y < tiles[0].length; y++){
-        	if (!tiles[x][y].isLava())
+    private boolean isActive(Creature creature){
+    	if (!useActivityZones || creature.isHuman())
+    		return true;
+    	
+    	if (creature.isHidden())
+    		return creature.homeScreenPosition == null 
+    			|| activeScreens[creature.homeScreenPosition.x][creature.homeScreenPosition.y];
+    	
+    	int x = creature.position.x;
+    	int y = creature.position.y;
+    	
+    	if (x < 0 || x >= width || y < 0 || y >= height)
+    		return true;
+    	else
+    		return activeScreens[x / Chunk.WIDTH][y / Chunk.HEIGHT];
+    }
+    
+    public void wake(int x, int y){
+    	if (x < 0 || x >= width || y < 0 || y >= height)
+    		return;
+    	
+    	awakeUntil[x / Chunk.WIDTH][y / Chunk.HEIGHT] = Math.max(awakeUntil[x / Chunk.WIDTH][y / Chunk.HEIGHT], turn + 10);
+    }
+    
+    private void updateLava(int sx, int sy) {
+    	Chunk chunk = chunk(sx, sy);
+    	for (int x = 0; x < Chunk.WIDTH; x++)
+        for (int y = 0; y < Chunk.HEIGHT; y++){
+        	if (!chunk.tile(x, y).isLava())
         		continue;
         	
-        	if (Math.random() < 0.75)
+        	if (random("tiles").nextDouble() < 0.75)
         		continue;
         	
-        	tiles[x][y] = Tile.LAVA1.variation(x, y);
+        	chunk.setTile(x, y, Tile.LAVA1.variation(sx * Chunk.WIDTH + x, sy * Chunk.HEIGHT + y, random("tiles")));
         }
 	}
 
-	private void updateWater(){
-    	for (int x = 0; x < tiles.length; x++)
-        for (int y = 0; y < tiles[0].length; y++){
-        	if (!tiles[x][y].isWater())
+	private void updateWater(int sx, int sy){
+    	Chunk chunk = chunk(sx, sy);
+    	for (int x = 0; x < Chunk.WIDTH; x++)
+        for (int y = 0; y < Chunk.HEIGHT; y++){
+        	if (!chunk.tile(x, y).isWater())
         		continue;
         	
-        	if (x < tiles.length-1 && tiles[x+1][y].isWater())
-        		tiles[x][y] = tiles[x+1][y];
+        	Tile right = x + 1 < Chunk.WIDTH ? chunk.tile(x + 1, y) 
+        			: sx + 1 < chunks.length && isMade(sx + 1, sy) ? chunks[sx + 1][sy].tile(0, y) 
+        			: Tile.OUT_OF_BOUNDS;
+        	if (right.isWater())
+        		chunk.setTile(x, y, right);
         	else
-        		tiles[x][y] = Tile.WATER1.variation(x, y);
+        		chunk.setTile(x, y, Tile.WATER1.variation(sx * Chunk.WIDTH + x, sy * Chunk.HEIGHT + y, random("tiles")));
         }
     }
 
 	public void add(Creature creature) {
 		while (creature.position == null){
-			int x = (int)(Math.random() * tiles.length);
-			int y = (int)(Math.random() * tiles[0].length);
+			if (regions.tiles(creature.movementClass()) == 0 && isEverythingMade())
+				return; // there's nowhere it could ever stand
+			
+			int x = random("spawns").nextInt(width);
+			int y = random("spawns").nextInt(height);
 			
-			if (creature.isHuman() && map.screen(x/19, y/9).defaultGround == Tile.DESERT_SAND1)
+			if (creature.isHuman() && map.screen(x / Chunk.WIDTH, y / Chunk.HEIGHT).defaultGround == Tile.DESERT_SAND1)
 				continue; // too crowded in the deserts
 			
-			if (creature.canEnter(tile(x,y)) && creature(x,y) == null)
+			if (creature.canEnter(this, x, y) && creature(x,y) == null)
 				creature.position = new Point(x, y);
 		}
+		addCreature(creature);
+	}
+
+	private void addCreature(Creature creature){
+		creature.random = random("creatures").split(creaturesAdded++);
+		creature.lastUpdatedTurn = turn;
 		creatures.add(creature);
+		addOccupant(creature);
+		
+		if (creature.isHuman())
+			anchors.add(creature);
 	}
 
+	// Like add, but the screen is picked from the map without making it, so the creature may wait there for a while.
+	public void addToRandomScreen(Creature creature) {
+		List<Point> screens = new ArrayList<Point>();
+		for (int sx = 0; sx < chunks.length; sx++)
+		for (int sy = 0; sy < chunks[0].length; sy++){
+			WorldScreen screen = map.screen(sx, sy);
+			
+			if (creature.isHuman() && screen.defaultGround == Tile.DESERT_SAND1)
+				continue; // too crowded in the deserts
+			
+			if ((creature.movementClass() & (Tile.WALK | Tile.FLY)) == 0 && !hasWater(screen))
+				continue;
+			
+			screens.add(new Point(sx, sy));
+		}
+		
+		if (screens.size() == 0){
+			add(creature);
+			return;
+		}
+		
+		Point screen = screens.get(random("spawns").nextInt(screens.size()));
+		addToScreen(creature, screen.x, screen.y);
+	}
+	
+	private boolean hasWater(WorldScreen screen){
+		return screen.defaultGround.isSwimmable() || screen.defaultWall.isSwimmable()
+				|| screen.nWater || screen.sWater || screen.wWater || screen.eWater
+				|| screen.nwWater || screen.neWater || screen.swWater || screen.seWater;
+	}
+	
+	// A screen that isn't made yet gets the creature when it is.
 	public void addToScreen(Creature creature, int sx, int sy) {
+		if (!isMade(sx, sy)){
+			putOff(creaturesWaiting, creature, sx, sy);
+			return;
+		}
+		
+		int tries = 0;
 		while (creature.position == null){
-			int x = sx * 19 + (int)(Math.random() * 19);
-			int y = sy *  9 + (int)(Math.random() * 9);
+			if (tries++ == Chunk.WIDTH * Chunk.HEIGHT * 4){
+				add(creature); // nowhere for it to stand on this screen
+				return;
+			}
+			
+			int x = sx * Chunk.WIDTH + random("spawns").nextInt(Chunk.WIDTH);
+			int y = sy * Chunk.HEIGHT + random("spawns").nextInt(Chunk.HEIGHT);
 			
-			if (creature.canEnter(tile(x,y)) && creature(x,y) == null)
+			if (creature.canEnter(this, x, y) && creature(x,y) == null)
 				creature.position = new Point(x, y);
 		}
-		creatures.add(creature);
+		addCreature(creature);
 	}
 
 	public void addToScreen(Item item, int sx, int sy) {
+		if (!isMade(sx, sy)){
+			putOff(itemsWaiting, new Pair<Item,Point>(item, null), sx, sy);
+			return;
+		}
+		
 		while (true){
-			int x = sx * 19 + (int)(Math.random() * 19);
-			int y = sy *  9 + (int)(Math.random() * 9);
+			int x = sx * Chunk.WIDTH + random("spawns").nextInt(Chunk.WIDTH);
+			int y = sy * Chunk.HEIGHT + random("spawns").nextInt(Chunk.HEIGHT);
 			
 			if (!tile(x,y).isGround())
 				continue;
 			
-			items[x][y] = item;
-			itemList.add(item);
+			putItem(item, x, y);
 			break;
 		}
 	}
 
 	public void add(Item item, int x, int y){
-		if (item == null || x < 0 || y < 0 || x >= items.length || y >= items[0].length)
+		if (item == null || x < 0 || y < 0 || x >= width || y >= height)
+			return;
+		
+		if (!isMade(x / Chunk.WIDTH, y / Chunk.HEIGHT)){
+			putOff(itemsWaiting, new Pair<Item,Point>(item, new Point(x, y)), x / Chunk.WIDTH, y / Chunk.HEIGHT);
 			return;
+		}
 		
 		removeItem(x, y);
 		
-        items[x][y] = item;
-		itemList.add(item);
+        putItem(item, x, y);
         Creature here = creature(x, y);
         if (here != null && here.hearts() > 0)
-        	item.onCollide(this, here);
+        	item.onCollide(this, here, x, y);
     }
 
 	public void add(Item item) {
-		int x = (int)(Math.random() * tiles.length);
-		int y = (int)(Math.random() * tiles[0].length);
+		int x = random("spawns").nextInt(width);
+		int y = random("spawns").nextInt(height);
 		
 		while (!tile(x,y).isGround()){
-			x = (int)(Math.random() * tiles.length);
-			y = (int)(Math.random() * tiles[0].length);
+			x = random("spawns").nextInt(width);
+			y = random("spawns").nextInt(height);
 		}
-		items[x][y] = item;
-		itemList.add(item);
+		putItem(item, x, y);
 	}
 
 	public void removeItem(int x, int y) {
-		if (items[x][y] == null)
+		if (x < 0 || y < 0 || x >= width || y >= height)
+			return;
+		
+		Map<Integer,Item> bucket = itemsAt(x, y, false);
+		if (bucket == null)
 			return;
 		
-		itemList.remove(items[x][y]);
-		items[x][y] = null;
+		Item removed = bucket.remove(packed(x, y));
+		if (removed != null){
+			InfluenceMap.itemChanged(influence, removed, x, y);
+			changed(x, y);
+		}
 	}
 	
 	public List<Point> screensOfType(Tile biome){
@@ -198,7 +802,20 @@ public class World {
 	}
 
 	public void setTile(Tile tile, int x, int y) {
-		tiles[x][y] = tile;
+		chunkAt(x, y).setTile(x % Chunk.WIDTH, y % Chunk.HEIGHT, tile);
+		
+		InfluenceMap.tileChanged(influence, x, y);
+		regions.tileChanged(this, x, y);
+		changedEverywhere = true;
+		
+		for (FlowField[] fields : flowFields.values())
+			for (FlowField field : fields)
+				if (field != null)
+					field.invalidate();
+		
+		for (ScreenGraph graph : screenGraphs)
+			if (graph != null)
+				graph.tileChanged(this, x, y);
 	}
 
 	public void add(Projectile projectile) {
@@ -208,7 +825,7 @@ public class World {
 	public List<Creature> creaturesNear(Creature creature){
 		List<Creature> near = new ArrayList<Creature>();
 		
-		for (Creature other : creatures){
+		for (Creature other : creaturesWithin(creature.position, 9)){
 			if (other == creature)
 				continue;
 			
@@ -222,16 +839,23 @@ public class World {
 	public List<Pair<Item,Point>> itemsNear(Creature creature){
 		List<Pair<Item,Point>> near = new ArrayList<Pair<Item,Point>>();
 		
-		for (int ox = -9; ox < 10; ox++)
-		for (int oy = -9; oy < 10; oy++){
-			int x = creature.position.x + ox;
-			int y = creature.position.y + oy;
-			
-			if (x < 0 || y < 0 || x >= items.length || y >= items[0].length)
+		int left = creature.position.x - 9;
+		int top = creature.position.y - 9;
+		int right = creature.position.x + 9;
+		int bottom = creature.position.y + 9;
+		
+		for (int sx = Math.max(0, left / Chunk.WIDTH); sx <= Math.min(chunks.length - 1, right / Chunk.WIDTH); sx++)
+		for (int sy = Math.max(0, top / Chunk.HEIGHT); sy <= Math.min(chunks[0].length - 1, bottom / Chunk.HEIGHT); sy++){
+			if (chunks[sx][sy] == null || chunks[sx][sy].items(false) == null)
 				continue;
 			
-			if (items[x][y] != null)
-				near.add(new Pair<Item,Point>(items[x][y], new Point(x,y)));
+			for (Map.Entry<Integer,Item> entry : chunks[sx][sy].items(false).entrySet()){
+				int x = entry.getKey() >> 16;
+				int y = entry.getKey() & 0xFFFF;
+				
+				if (x >= left && x <= right && y >= top && y <= bottom)
+					near.add(new Pair<Item,Point>(entry.getValue(), new Point(x,y)));
+			}
 		}
 		
 		return near;
@@ -23,4 +23,5 @@ public class WorldScreen {
 	public Boolean swWater = false;
 	public Boolean seWater = false;
 	public Boolean canAddQuarterSection = true;
+	public int deadEndLayout = -1; // which dead end room this is, if it is one
 }
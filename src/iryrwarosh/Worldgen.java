@@ -4,35 +4,118 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 
+// Builds the cells eagerly: the maze, themes, dead end rooms, and where the water goes. The tiles
+// of a screen aren't made until the world first asks for them, from that screen's own stream, so
+// they come out the same whichever order the screens are made in. The cells are only read after
+// build(), which lets any number of screens be made at once on different threads.
 public class Worldgen {
 	private WorldScreen[][] cells;
-	private Tile[][] tiles;
+	private List<Overlay>[][] overlays;
 	private int screenWidth = 19;
 	private int screenHeight = 9;
 	private String dirs = "NSWE";
+	private Rng random;
+	private Rng screenRandom;
+	
+	// the screen being made, when this is building the tiles of one
+	private Chunk chunk;
+	private int chunkX;
+	private int chunkY;
+	private boolean canAddQuarterSection;
+	
+	// Water that crosses screens is planned with the cells and laid down on each screen as it's made.
+	private static class Overlay {
+		int x, y, width, height;
+		Tile tile;
+		boolean bridge;
+	}
 	
 	public Worldgen(int width, int height) {
+		this(width, height, new Rng(System.nanoTime()));
+	}
+	
+	@SuppressWarnings({"unchecked", "rawtypes"})
+	public Worldgen(int width, int height, Rng random) {
+		this.random = random;
+		this.screenRandom = random.split("screens");
 		this.cells = new WorldScreen[width][height];
-		this.tiles = new Tile[width * screenWidth][height * screenHeight];
+		this.overlays = new List[width][height];
 
 		for (int x = 0; x < cells.length; x++)
 		for (int y = 0; y < cells[0].length; y++)
 			this.cells[x][y] = new WorldScreen();
 	}
+	
+	private Worldgen(Worldgen parent, int sx, int sy){
+		this.cells = parent.cells;
+		this.overlays = parent.overlays;
+		this.random = parent.screenRandom.split(sx * cells[0].length + sy);
+		this.chunk = new Chunk();
+		this.chunkX = sx;
+		this.chunkY = sy;
+		this.canAddQuarterSection = cells[sx][sy].canAddQuarterSection;
+	}
+	
+	private Tile tile(int x, int y){
+		return chunk.tile(x - chunkX * screenWidth, y - chunkY * screenHeight);
+	}
+	
+	private void setTile(int x, int y, Tile tile){
+		chunk.setTile(x - chunkX * screenWidth, y - chunkY * screenHeight, tile);
+	}
 
 	public World build(){
 		makePerfectMazeWithCells();
 		addExtraConnectionsToCells();
 		addThemesToCells();
 		addDesertToCells();
-		setTiles();
-		addExtraQuarterScreenWallsToTiles();
+		addDeadEndRoomsToCells();
 		addShoreLineToTiles();
 		addShoreLineToTiles();
 		addLakeToTiles();
 		addLakeToTiles();
-		return new World(tiles, new WorldMap(cells));
+		return new World(this, new WorldMap(cells), random.split("world"));
+	}
+	
+	// The tiles for one screen. Only reads the cells, so it doesn't matter what's been made before.
+	Chunk makeScreen(int sx, int sy){
+		Worldgen builder = new Worldgen(this, sx, sy);
+		builder.setTilesForScreen(sx, sy);
+		builder.addBorderOpenings(sx, sy);
+		builder.addExtraQuarterScreenOfWalls(sx, sy);
+		builder.addOverlays(sx, sy);
+		return builder.chunk;
+	}
+	
+	// The tiles for several screens, made in parallel and returned in the same order.
+	Chunk[] makeScreens(List<Point> screens, ExecutorService workers){
+		List<Callable<Chunk>> tasks = new ArrayList<Callable<Chunk>>();
+		for (final Point screen : screens){
+			tasks.add(new Callable<Chunk>(){
+				public Chunk call(){
+					return makeScreen(screen.x, screen.y);
+				}
+			});
+		}
+		
+		Chunk[] made = new Chunk[screens.size()];
+		try {
+			List<Future<Chunk>> results = workers.invokeAll(tasks);
+			for (int i = 0; i < made.length; i++)
+				made[i] = results.get(i).get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			for (int i = 0; i < made.length; i++)
+				made[i] = makeScreen(screens.get(i).x, screens.get(i).y);
+		} catch (ExecutionException e) {
+			throw new RuntimeException(e.getCause());
+		}
+		return made;
 	}
 
 	private void makePerfectMazeWithCells(){
@@ -41,10 +124,10 @@ public class Worldgen {
 		boolean[][] connected = new boolean[cells.length][cells[0].length];
 		
 		List<Point> path = new ArrayList<Point>();
-		path.add(new Point((int)(Math.random() * cells.length), (int)(Math.random() * cells[0].length)));
+		path.add(new Point((int)(random.nextDouble() * cells.length), (int)(random.nextDouble() * cells[0].length)));
 		
 		while (!path.isEmpty()) {
-			Point p = path.remove((int) (Math.random() * path.size()));
+			Point p = path.remove((int) (random.nextDouble() * path.size()));
 
 			String possibleDirections = "";
 
@@ -61,7 +144,7 @@ public class Worldgen {
 				possibleDirections += 'N';
 
 			if (possibleDirections.length() > 0) {
-				char direction = possibleDirections.charAt((int) (Math.random() * possibleDirections.length()));
+				char direction = possibleDirections.charAt((int) (random.nextDouble() * possibleDirections.length()));
 
 				if (possibleDirections.length() > 1)
 					path.add(p.copy());
@@ -82,8 +165,8 @@ public class Worldgen {
 		int total = Math.max(width, height);
 		
 		while (total-- > 0) {
-			Point p = new Point((int)(Math.random() * width),
-					            (int)(Math.random() * height));
+			Point p = new Point((int)(random.nextDouble() * width),
+					            (int)(random.nextDouble() * height));
 
 			String possibleDirections = "";
 
@@ -100,7 +183,7 @@ public class Worldgen {
 				possibleDirections += 'N';
 
 			if (possibleDirections.length() > 0) {
-				char direction = possibleDirections.charAt((int) (Math.random() * possibleDirections.length()));
+				char direction = possibleDirections.charAt((int) (random.nextDouble() * possibleDirections.length()));
 				
 				connectScreens(p, direction);
 			}
@@ -109,7 +192,7 @@ public class Worldgen {
 
 	private void connectScreens(Point p, char direction) {
 		int pathType = WorldScreen.CENTER;
-		switch ((int)(Math.random() * 7)){
+		switch ((int)(random.nextDouble() * 7)){
 		case 0: pathType = WorldScreen.TOP_LEFT; break;
 		case 1: pathType = WorldScreen.BOTTOM_RIGHT; break;
 		case 2: pathType = WorldScreen.WIDE; break;
@@ -159,8 +242,8 @@ public class Worldgen {
 				Tile.WHITE_ROCK, Tile.WHITE_TREE1 }){
 		
 			while (true){
-				int x = (int)(Math.random() * themes.length);
-				int y = (int)(Math.random() * themes[0].length);
+				int x = (int)(random.nextDouble() * themes.length);
+				int y = (int)(random.nextDouble() * themes[0].length);
 				
 				if (themes[x][y] == null){
 					themes[x][y] = theme;
@@ -200,7 +283,7 @@ public class Worldgen {
 			if (themes[x][y] != null) {
 				themes2[x][y] = themes[x][y];
 			} else {
-				Collections.shuffle(directions);
+				Collections.shuffle(directions, random);
 				
 				for (Character direction : directions){
 					switch (direction){
@@ -260,8 +343,8 @@ public class Worldgen {
 	}
 	
 	private void addDesertToCells(){
-		int x = (int)(Math.random() * cells.length - 2) + 1;
-		int y = (int)(Math.random() * cells[0].length - 2) + 1;
+		int x = (int)(random.nextDouble() * cells.length - 2) + 1;
+		int y = (int)(random.nextDouble() * cells[0].length - 2) + 1;
 		
 		cells[x][y].canAddQuarterSection = false;
 		cells[x][y].defaultGround = Tile.DESERT_SAND1;
@@ -288,14 +371,27 @@ public class Worldgen {
 		cells[x+1][y+1].wEdge = WorldScreen.WIDE;
 	}
 	
-	private void setTiles(){
+	private void addDeadEndRoomsToCells(){
 		for (int x = 0; x < cells.length; x++)
-		for (int y = 0; y < cells[0].length; y++)
-			setTilesForScreen(x, y);
-
-		for (int x = 0; x < cells.length; x++)
-		for (int y = 0; y < cells[0].length; y++)
-			addBorderOpenings(x, y);
+		for (int y = 0; y < cells[0].length; y++){
+			if (cells[x][y].defaultGround == Tile.DESERT_SAND1 || !isDeadEnd(x, y) || random.nextDouble() >= 0.5)
+				continue;
+			
+			cells[x][y].deadEndLayout = (int)(random.nextDouble() * 20);
+			
+			if (random.nextDouble() < 0.33){
+				cells[x][y].defaultGround = Tile.WHITE_TILE1;
+				cells[x][y].defaultWall = Tile.WHITE_WALL;
+			}
+			
+			if (cells[x][y].deadEndLayout == 7){
+				cells[x][y].defaultGround = Tile.DESERT_SAND1;
+				cells[x][y].defaultWall = Tile.BROWN_ROCK;
+			}
+			
+			cells[x][y].canAddQuarterSection = false;
+			convertEdgesToCenter(x, y);
+		}
 	}
 
 	private void setTilesForScreen(int sx, int sy){
@@ -310,15 +406,15 @@ public class Worldgen {
 			  + "#.................#"
 			  + "###################");
 		
-		if (cells[sx][sy].defaultGround == Tile.DESERT_SAND1)
-			return;
-		
-		if (isDeadEnd(sx, sy) && Math.random() < 0.5){
+		if (cells[sx][sy].deadEndLayout != -1){
 			setDeadEndTiles(sx,sy);
 			return;
 		}
 		
-		switch ((int)(Math.random() * 7)){
+		if (cells[sx][sy].defaultGround == Tile.DESERT_SAND1)
+			return;
+		
+		switch ((int)(random.nextDouble() * 7)){
 		case 0:
 			setTilesFullScreen(sx, sy);
 			break;
@@ -339,7 +435,7 @@ public class Worldgen {
 			break;
 		}
 
-		switch ((int)(Math.random() * 60)){
+		switch ((int)(random.nextDouble() * 60)){
 		case 0: setTilesOuterScreen(sx, sy); break;
 		case 1: setTilesInnerScreen(sx, sy); break;
 		case 2: setTilesLeftScreen(sx, sy); break;
@@ -359,22 +455,17 @@ public class Worldgen {
 	}
 	
 	private void setDeadEndTiles(int sx, int sy){
-		Tile liquid = Math.random() < 0.66 ? Tile.WATER1 : Tile.LAVA1;
+		Tile liquid = random.nextDouble() < 0.66 ? Tile.WATER1 : Tile.LAVA1;
 		
-		if (Math.random() < 0.33){
-			cells[sx][sy].defaultGround = Tile.WHITE_TILE1;
-			cells[sx][sy].defaultWall = Tile.WHITE_WALL;
-		}
-		
-		Tile random = getRandomWall();
-		switch ((int)(Math.random() * 10)){
+		Tile randomWall = getRandomWall();
+		switch ((int)(random.nextDouble() * 10)){
 		case 0:
-		case 1: random = Tile.WATER1; break;
+		case 1: randomWall = Tile.WATER1; break;
 		case 2:
-		case 3: random = Tile.LAVA1; break;
-		case 4: random = Tile.STATUE; break;
+		case 3: randomWall = Tile.LAVA1; break;
+		case 4: randomWall = Tile.STATUE; break;
 		}
-		switch ((int)(Math.random() * 20)){
+		switch (cells[sx][sy].deadEndLayout){
 		case 0:
 			addMap(sx, sy, 
 				    "###################"
@@ -397,7 +488,7 @@ public class Worldgen {
 				  + "#.t.............t.#"
 				  + "#.ttttttt.ttttttt.#"
 				  + "#.................#"
-				  + "###################", random);
+				  + "###################", randomWall);
 			break;
 		case 2:
 			addMap(sx, sy, 
@@ -421,7 +512,7 @@ public class Worldgen {
 				  + "#.tt...........tt.#"
 				  + "#..ttt.......ttt..#"
 				  + "#.................#"
-				  + "###################", random);
+				  + "###################", randomWall);
 			break;
 		case 4:
 			addMap(sx, sy, 
@@ -457,11 +548,9 @@ public class Worldgen {
 				  + "#...t.........t...#"
 				  + "##....t..t..t....##"
 				  + "####...........####"
-				  + "###################", random);
+				  + "###################", randomWall);
 			break;
 		case 7:
-			cells[sx][sy].defaultGround = Tile.DESERT_SAND1;
-			cells[sx][sy].defaultWall = Tile.BROWN_ROCK;
 			addMap(sx, sy, 
 				    "###################"
 				  + "#.................#"
@@ -618,9 +707,6 @@ public class Worldgen {
 				  + "###################");
 			break;
 		}
-		
-		cells[sx][sy].canAddQuarterSection = false;
-		convertEdgesToCenter(sx, sy);
 	}
 
 	private void convertEdgesToCenter(int sx, int sy) {
@@ -643,7 +729,7 @@ public class Worldgen {
 	}
 	
 	private void setTilesFullScreen(int sx, int sy){
-		switch ((int)(Math.random() * 10)){
+		switch ((int)(random.nextDouble() * 10)){
 		case 0:
 			addMap(sx, sy, 
 				    "###################"
@@ -679,7 +765,7 @@ public class Worldgen {
 				  + "#.xxxxxxxxxxxxxxx.#"
 				  + "#.................#"
 				  + "###################");
-			cells[sx][sy].canAddQuarterSection = false;
+			canAddQuarterSection = false;
 			break;
 		case 3:
 			addMap(sx, sy, 
@@ -716,7 +802,7 @@ public class Worldgen {
 				  + "#.~~~~~~~~~~~~~~~.#"
 				  + "#.................#"
 				  + "###################");
-			cells[sx][sy].canAddQuarterSection = false;
+			canAddQuarterSection = false;
 			break;
 		case 6:
 			addMap(sx, sy, 
@@ -729,7 +815,7 @@ public class Worldgen {
 				  + "#......&.&.&......#"
 				  + "#.................#"
 				  + "###################");
-			cells[sx][sy].canAddQuarterSection = false;
+			canAddQuarterSection = false;
 			break;
 		case 7:
 			addMap(sx, sy, 
@@ -742,7 +828,7 @@ public class Worldgen {
 				  + "#.................#"
 				  + "##...............##"
 				  + "###################");
-			cells[sx][sy].canAddQuarterSection = false;
+			canAddQuarterSection = false;
 			break;
 		case 8:
 			addMap(sx, sy, 
@@ -767,13 +853,13 @@ public class Worldgen {
 				  + "##...............##"
 				  + "###################"
 				  + "###################");
-			cells[sx][sy].canAddQuarterSection = false;
+			canAddQuarterSection = false;
 			break;
 		}
 	}
 	
 	private void setTilesInnerScreen(int sx, int sy){
-		switch ((int)(Math.random() * 10)){
+		switch ((int)(random.nextDouble() * 10)){
 		case 0:
 			addMap(sx, sy, 
 					"                   "
@@ -821,7 +907,7 @@ public class Worldgen {
 				  + "                   "
 				  + "                   "
 				  + "                   ");
-			cells[sx][sy].canAddQuarterSection = false;
+			canAddQuarterSection = false;
 			break;
 		case 4:
 			addMap(sx, sy, 
@@ -846,7 +932,7 @@ public class Worldgen {
 				  + "   .~~~~~~~~~~~.   "
 				  + "                   "
 				  + "                   ");
-			cells[sx][sy].canAddQuarterSection = false;
+			canAddQuarterSection = false;
 			break;
 		case 6:
 			addMap(sx, sy, 
@@ -859,7 +945,7 @@ public class Worldgen {
 				  + "                   "
 				  + "                   "
 				  + "                   ");
-			cells[sx][sy].canAddQuarterSection = false;
+			canAddQuarterSection = false;
 			break;
 		case 7:
 			addMap(sx, sy, 
@@ -901,7 +987,7 @@ public class Worldgen {
 	}
 	
 	private void setTilesOuterScreen(int sx, int sy){
-		switch ((int)(Math.random() * 10)){
+		switch ((int)(random.nextDouble() * 10)){
 		case 0:
 			addMap(sx, sy, 
 				    "###################"
@@ -1026,7 +1112,7 @@ public class Worldgen {
 	}
 
 	private void setTilesLeftScreen(int sx, int sy){
-		switch ((int)(Math.random() * 10)){
+		switch ((int)(random.nextDouble() * 10)){
 		case 0:
 			addMap(sx, sy, 
 					"##########         "
@@ -1151,7 +1237,7 @@ public class Worldgen {
 	}
 
 	private void setTilesRightScreen(int sx, int sy){
-		switch ((int)(Math.random() * 10)){
+		switch ((int)(random.nextDouble() * 10)){
 		case 0:
 			addMap(sx, sy,
 					"          #########"
@@ -1276,7 +1362,7 @@ public class Worldgen {
 	}
 
 	private void setTilesTopOfScreen(int sx, int sy){
-		switch ((int)(Math.random() * 5)){
+		switch ((int)(random.nextDouble() * 5)){
 		case 0:
 			addMap(sx, sy,
 					"###################"
@@ -1341,7 +1427,7 @@ public class Worldgen {
 	}
 
 	private void setTilesBottomOfScreen(int sx, int sy){
-		switch ((int)(Math.random() * 5)){
+		switch ((int)(random.nextDouble() * 5)){
 		case 0:
 			addMap(sx, sy,
 				    "                   "
@@ -1414,12 +1500,12 @@ public class Worldgen {
 		int my = sy * screenHeight;
 		Tile floor   = cells[sx][sy].defaultGround;
 		Tile wall    = cells[sx][sy].defaultWall;
-		Tile local   = Math.random() < 0.66 ? wall : getRandomWall();
+		Tile local   = random.nextDouble() < 0.66 ? wall : getRandomWall();
 		Tile bridge  = Tile.BRIDGE;
 		
-		if (Math.random() < 0.025) local = Tile.STATUE;
+		if (random.nextDouble() < 0.025) local = Tile.STATUE;
 		
-		Tile special = Math.random() < 0.10 ? Tile.STATUE : (Math.random() < 0.50 ? floor : wall);
+		Tile special = random.nextDouble() < 0.10 ? Tile.STATUE : (random.nextDouble() < 0.50 ? floor : wall);
 		
 		if (wall == Tile.WHITE_WALL){
 			local = Tile.STATUE_WHITE;
@@ -1432,13 +1518,13 @@ public class Worldgen {
 		for (int x = 0; x < screenWidth; x++)
 		for (int y = 0; y < screenHeight; y++) {
 			switch (data.charAt(x + y * screenWidth)){
-			case '.': tiles[mx+x][my+y] = floor.variation(mx+x, my+y); break;
-			case '#': tiles[mx+x][my+y] = wall.variation(mx+x, my+y); break;
-			case 'x': tiles[mx+x][my+y] = local.variation(mx+x, my+y); break;
-			case '~': tiles[mx+x][my+y] = Tile.WATER1.variation(mx+x, my+y); break;
-			case '&': tiles[mx+x][my+y] = special; break;
-			case 't': tiles[mx+x][my+y] = specificTile; break;
-			case '=': tiles[mx+x][my+y] = bridge.variation(mx+x, my+y); break;
+			case '.': setTile(mx+x, my+y, floor.variation(mx+x, my+y, random)); break;
+			case '#': setTile(mx+x, my+y, wall.variation(mx+x, my+y, random)); break;
+			case 'x': setTile(mx+x, my+y, local.variation(mx+x, my+y, random)); break;
+			case '~': setTile(mx+x, my+y, Tile.WATER1.variation(mx+x, my+y, random)); break;
+			case '&': setTile(mx+x, my+y, special); break;
+			case 't': setTile(mx+x, my+y, specificTile); break;
+			case '=': setTile(mx+x, my+y, bridge.variation(mx+x, my+y, random)); break;
 			case ' ': break;
 			}
 		}
@@ -1451,7 +1537,7 @@ public class Worldgen {
 						 Tile.GREEN_ROCK, Tile.PINE_TREE1, 
 						 Tile.WHITE_ROCK, Tile.WHITE_TREE1 };
 		
-		return tiles[(int)(Math.random() * tiles.length)];
+		return tiles[(int)(random.nextDouble() * tiles.length)];
 	}
 	
 	private void addBorderOpenings(int x, int y){
@@ -1493,19 +1579,65 @@ public class Worldgen {
 	}
 
 	private void clear(int x, int y, int w, int h, Tile tile) {
-		for (int x2 = x; x2 < x + w; x2++)
-		for (int y2 = y; y2 < y + h; y2++)
-			if (x2 >= 0 && y2 >= 0 && x2 < tiles.length && y2 < tiles[0].length)
-				tiles[x2][y2] = tile.variation(x2, y2);
+		int left = chunkX * screenWidth;
+		int top = chunkY * screenHeight;
+		
+		for (int x2 = Math.max(x, left); x2 < Math.min(x + w, left + screenWidth); x2++)
+		for (int y2 = Math.max(y, top); y2 < Math.min(y + h, top + screenHeight); y2++)
+			setTile(x2, y2, tile.variation(x2, y2, random));
+	}
+	
+	// Remembers to clear this, on every screen it covers, when each of them is made.
+	private void planClear(int x, int y, int w, int h, Tile tile) {
+		int left = Math.max(0, x);
+		int top = Math.max(0, y);
+		int right = Math.min(x + w, cells.length * screenWidth) - 1;
+		int bottom = Math.min(y + h, cells[0].length * screenHeight) - 1;
+		
+		for (int sx = left / screenWidth; sx <= right / screenWidth && left <= right; sx++)
+		for (int sy = top / screenHeight; sy <= bottom / screenHeight && top <= bottom; sy++){
+			Overlay overlay = new Overlay();
+			overlay.x = Math.max(left, sx * screenWidth);
+			overlay.y = Math.max(top, sy * screenHeight);
+			overlay.width = Math.min(right + 1, sx * screenWidth + screenWidth) - overlay.x;
+			overlay.height = Math.min(bottom + 1, sy * screenHeight + screenHeight) - overlay.y;
+			overlay.tile = tile;
+			plan(sx, sy, overlay);
+		}
+	}
+	
+	private void planBridge(int sx, int sy){
+		Overlay overlay = new Overlay();
+		overlay.bridge = true;
+		plan(sx, sy, overlay);
+	}
+	
+	private void plan(int sx, int sy, Overlay overlay){
+		if (overlays[sx][sy] == null)
+			overlays[sx][sy] = new ArrayList<Overlay>();
+		
+		overlays[sx][sy].add(overlay);
+	}
+	
+	private void addOverlays(int sx, int sy){
+		if (overlays[sx][sy] == null)
+			return;
+		
+		for (Overlay overlay : overlays[sx][sy]){
+			if (overlay.bridge)
+				addBridge(sx, sy);
+			else
+				clear(overlay.x, overlay.y, overlay.width, overlay.height, overlay.tile);
+		}
 	}
 	
 	public void addLakeToTiles(){
 		int w = cells.length;
 		int h = cells[0].length;
-		int x = (int)(Math.random() * (w - 2) + 1);
-		int y = (int)(Math.random() * (h - 2) + 1);
+		int x = (int)(random.nextDouble() * (w - 2) + 1);
+		int y = (int)(random.nextDouble() * (h - 2) + 1);
 		
-		clear(x * screenWidth - screenWidth/2, 
+		planClear(x * screenWidth - screenWidth/2, 
 			  y * screenHeight - screenHeight/2, 
 			  screenWidth - 2 + 1, 
 			  screenHeight - 2 + 1, Tile.WATER1);
@@ -1524,8 +1656,8 @@ public class Worldgen {
 		int totalHeight = cells[0].length * screenHeight;
 		int x = screenWidth / 2;
 		int y = 0;
-		int start = (int)(Math.random() * (cells.length + cells[0].length) * 2);
-		int length = 5 + (int)(Math.random() * (cells.length + cells[0].length - 5)) / 2;
+		int start = (int)(random.nextDouble() * (cells.length + cells[0].length) * 2);
+		int length = 5 + (int)(random.nextDouble() * (cells.length + cells[0].length - 5)) / 2;
 		boolean started = false;
 		
 		while (length > 0){
@@ -1538,7 +1670,7 @@ public class Worldgen {
 			switch (dir){
 			case 'N':
 				if (started) {
-					clear(x, y, screenWidth, 4, Tile.WATER1);
+					planClear(x, y, screenWidth, 4, Tile.WATER1);
 					cells[sx][sy].nWater = true;
 					cells[sx][sy].neWater = true;
 					if (sx+1 < cells.length)
@@ -1546,7 +1678,7 @@ public class Worldgen {
 				}
 				x += screenWidth;
 				if (x > totalWidth){
-					if (started) clear(totalWidth-4, 0, 4, screenHeight / 2, Tile.WATER1);
+					if (started) planClear(totalWidth-4, 0, 4, screenHeight / 2, Tile.WATER1);
 					x = totalWidth - 4;
 					y = screenHeight / 2;
 					dir = 'E';
@@ -1554,7 +1686,7 @@ public class Worldgen {
 				break;
 			case 'E':
 				if (started) {
-					clear(x, y, 4, screenHeight, Tile.WATER1);
+					planClear(x, y, 4, screenHeight, Tile.WATER1);
 					cells[sx][sy].eWater = true;
 					cells[sx][sy].seWater = true;
 					if (sy+1 < cells[0].length)
@@ -1562,7 +1694,7 @@ public class Worldgen {
 				}
 				y += screenHeight;
 				if (y > totalHeight){
-					if (started) clear(totalWidth-screenWidth/2, totalHeight-4, screenWidth/2, 4, Tile.WATER1);
+					if (started) planClear(totalWidth-screenWidth/2, totalHeight-4, screenWidth/2, 4, Tile.WATER1);
 					x = totalWidth - screenWidth / 2;
 					y = totalHeight - 4;
 					dir = 'S';
@@ -1570,7 +1702,7 @@ public class Worldgen {
 				break;
 			case 'S':
 				if (started) {
-					clear(x-screenWidth, y, screenWidth, 4, Tile.WATER1);
+					planClear(x-screenWidth, y, screenWidth, 4, Tile.WATER1);
 					cells[sx][sy].sWater = true;
 					cells[sx][sy].swWater = true;
 					if (sx > 0)
@@ -1578,7 +1710,7 @@ public class Worldgen {
 				}
 				x -= screenWidth;
 				if (x < 0){
-					if (started) clear(0, totalHeight-screenHeight/2, 4, screenHeight / 2, Tile.WATER1);
+					if (started) planClear(0, totalHeight-screenHeight/2, 4, screenHeight / 2, Tile.WATER1);
 					x = 0;
 					y = totalHeight - screenHeight / 2;
 					dir = 'W';
@@ -1586,7 +1718,7 @@ public class Worldgen {
 				break;
 			case 'W':
 				if (started) {
-					clear(x, y-screenHeight, 4, screenHeight, Tile.WATER1);
+					planClear(x, y-screenHeight, 4, screenHeight, Tile.WATER1);
 					cells[sx][sy].wWater = true;
 					cells[sx][sy].nwWater = true;
 					if (sy > 0)
@@ -1594,7 +1726,7 @@ public class Worldgen {
 				}
 				y -= screenHeight;
 				if (y < 0){
-					clear(0, 0, screenWidth/2, 4, Tile.WATER1);
+					planClear(0, 0, screenWidth/2, 4, Tile.WATER1);
 					x = screenWidth / 2;
 					y = 0;
 					dir = 'N';
@@ -1607,7 +1739,7 @@ public class Worldgen {
 	}
 
 	public void addRiver(int x, int y, int offsetX, int offsetY){
-		char dir = dirs.charAt((int)(Math.random() * 4));
+		char dir = dirs.charAt((int)(random.nextDouble() * 4));
 		
 		while (x >= 0 && y >= 0 && x < cells.length+1 && y < cells[0].length+1){
 			dir = changeDirection(dir);
@@ -1617,34 +1749,34 @@ public class Worldgen {
 			
 			switch (dir){
 			case 'N':
-				clear(x*screenWidth + offsetX, --y*screenHeight + offsetY, 1, screenHeight+1, Tile.WATER1);
+				planClear(x*screenWidth + offsetX, --y*screenHeight + offsetY, 1, screenHeight+1, Tile.WATER1);
 				if (cells[x][y+1].wEdge != WorldScreen.WALL || cells[x][y+1].sEdge == WorldScreen.TOP_LEFT)
-					addBridge(x, y+1);
+					planBridge(x, y+1);
 				break;
 			case 'S': 
-				clear(x*screenWidth + offsetX, y++*screenHeight + offsetY, 1, screenHeight, Tile.WATER1);
+				planClear(x*screenWidth + offsetX, y++*screenHeight + offsetY, 1, screenHeight, Tile.WATER1);
 				if (cells[x][y-1].wEdge != WorldScreen.WALL || cells[x][y-1].sEdge == WorldScreen.TOP_LEFT)
-					addBridge(x, y-1);
+					planBridge(x, y-1);
 				break;
 			case 'W': 
-				clear(--x*screenWidth + offsetX, y*screenHeight + offsetY, screenWidth+1, 1, Tile.WATER1);
+				planClear(--x*screenWidth + offsetX, y*screenHeight + offsetY, screenWidth+1, 1, Tile.WATER1);
 				if (cells[x+1][y].nEdge != WorldScreen.WALL || cells[x+1][y].eEdge == WorldScreen.TOP_LEFT)
-					addBridge(x+1, y);
+					planBridge(x+1, y);
 				break;
 			case 'E': 
-				clear(x++*screenWidth + offsetX, y*screenHeight + offsetY, screenWidth, 1, Tile.WATER1);
+				planClear(x++*screenWidth + offsetX, y*screenHeight + offsetY, screenWidth, 1, Tile.WATER1);
 				if (cells[x-1][y].nEdge != WorldScreen.WALL || cells[x-1][y].eEdge == WorldScreen.TOP_LEFT)
-					addBridge(x-1, y);
+					planBridge(x-1, y);
 				break;
 			}
 		}
 	}
 
 	private char changeDirection(char dir) {
-		if (Math.random() < 0.66)
+		if (random.nextDouble() < 0.66)
 			return dir;
 		
-		char dir2 = dirs.charAt((int)(Math.random() * 4));
+		char dir2 = dirs.charAt((int)(random.nextDouble() * 4));
 		if (dir2 == 'N' && dir != 'S'
 			 || dir2 == 'S' && dir != 'N'
 			 || dir2 == 'W' && dir != 'E'
@@ -1660,8 +1792,8 @@ public class Worldgen {
 		if (candidates.size() == 0)
 			return;
 		
-		Point p = candidates.get((int)(Math.random() *  candidates.size()));
-		tiles[p.x][p.y] = Tile.BRIDGE; 
+		Point p = candidates.get((int)(random.nextDouble() *  candidates.size()));
+		setTile(p.x, p.y, Tile.BRIDGE);
 	}
 
 	private List<Point> getBridgeCandidates(int x, int y) {
@@ -1675,29 +1807,23 @@ public class Worldgen {
 	}
 
 	private void addLocationIfTileIsBridgeCandidate(int tx, int ty, List<Point> candidates) {
-		if (!tiles[tx][ty].isWater())
+		if (!tile(tx, ty).isWater())
 			return;
 		
-		if (tiles[tx][ty-1].isWater() 
-				&& tiles[tx][ty+1].isWater() 
-				&& tiles[tx-1][ty].isGround() 
-				&& tiles[tx+1][ty].isGround())
+		if (tile(tx, ty-1).isWater() 
+				&& tile(tx, ty+1).isWater() 
+				&& tile(tx-1, ty).isGround() 
+				&& tile(tx+1, ty).isGround())
 			candidates.add(new Point(tx, ty));
-		else if (tiles[tx][ty-1].isGround() 
-				&& tiles[tx][ty+1].isGround() 
-				&& tiles[tx-1][ty].isWater() 
-				&& tiles[tx+1][ty].isWater())
+		else if (tile(tx, ty-1).isGround() 
+				&& tile(tx, ty+1).isGround() 
+				&& tile(tx-1, ty).isWater() 
+				&& tile(tx+1, ty).isWater())
 			candidates.add(new Point(tx, ty));
 	}
 
-	private void addExtraQuarterScreenWallsToTiles() {
-		for (int x = 0; x < cells.length; x++)
-		for (int y = 0; y < cells[0].length; y++)
-			addExtraQuarterScreenOfWalls(x,y);
-	}
-
 	private void addExtraQuarterScreenOfWalls(int sx, int sy) {
-		if (!cells[sx][sy].canAddQuarterSection)
+		if (!canAddQuarterSection)
 			return;
 		
 		int hw = screenWidth / 2;
@@ -1705,31 +1831,31 @@ public class Worldgen {
 		
 		int centerBlockers = 0;
 		for (Point p : new Point[]{ new Point(0,0), new Point(0,-1), new Point(0,1), new Point(-1,0), new Point(1,0)}){
-			if (tiles[sx * screenWidth + hw + p.x][sy * screenHeight + hh + p.y] != cells[sx][sy].defaultGround)
+			if (tile(sx * screenWidth + hw + p.x, sy * screenHeight + hh + p.y) != cells[sx][sy].defaultGround)
 				centerBlockers++;
 		}
 		
 		boolean allowOnlyOnce = centerBlockers > 2;
 		
-		if (Math.random() < 0.1 && cells[sx][sy].nEdge != WorldScreen.TOP_LEFT && cells[sx][sy].wEdge != WorldScreen.TOP_LEFT){
+		if (random.nextDouble() < 0.1 && cells[sx][sy].nEdge != WorldScreen.TOP_LEFT && cells[sx][sy].wEdge != WorldScreen.TOP_LEFT){
 			clear(sx*screenWidth, sy*screenHeight, hw, hh, cells[sx][sy].defaultWall);
 			if (allowOnlyOnce)
 				return;
 		}
 		
-		if (Math.random() < 0.1 && cells[sx][sy].nEdge != WorldScreen.BOTTOM_RIGHT && cells[sx][sy].eEdge != WorldScreen.TOP_LEFT){
+		if (random.nextDouble() < 0.1 && cells[sx][sy].nEdge != WorldScreen.BOTTOM_RIGHT && cells[sx][sy].eEdge != WorldScreen.TOP_LEFT){
 			clear(sx*screenWidth+hw+1, sy*screenHeight, hw, hh, cells[sx][sy].defaultWall);
 			if (allowOnlyOnce)
 				return;
 		}
 		
-		if (Math.random() < 0.1 && cells[sx][sy].sEdge != WorldScreen.BOTTOM_RIGHT && cells[sx][sy].eEdge != WorldScreen.BOTTOM_RIGHT){
+		if (random.nextDouble() < 0.1 && cells[sx][sy].sEdge != WorldScreen.BOTTOM_RIGHT && cells[sx][sy].eEdge != WorldScreen.BOTTOM_RIGHT){
 			clear(sx*screenWidth+hw+1, sy*screenHeight+hh+1, hw, hh, cells[sx][sy].defaultWall);
 			if (allowOnlyOnce)
 				return;
 		}
 		
-		if (Math.random() < 0.1 && cells[sx][sy].sEdge != WorldScreen.TOP_LEFT && cells[sx][sy].wEdge != WorldScreen.BOTTOM_RIGHT){
+		if (random.nextDouble() < 0.1 && cells[sx][sy].sEdge != WorldScreen.TOP_LEFT && cells[sx][sy].wEdge != WorldScreen.BOTTOM_RIGHT){
 			clear(sx*screenWidth, sy*screenHeight+hh+1, hw, hh, cells[sx][sy].defaultWall);
 			if (allowOnlyOnce)
 				return;
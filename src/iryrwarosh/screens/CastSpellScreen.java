@@ -60,10 +60,10 @@ public class CastSpellScreen implements Screen {
 		int y = -1;
 		
 		while (tries++ < 30 
-				&& !(player.canEnter(world.tile(x,y))
+				&& !(player.canEnter(world, x, y)
 				  && world.creature(x,y) == null)){
-			x = player.position.x + (int)(Math.random() * 19 - 9);
-			y = player.position.y + (int)(Math.random() * 19 - 9); 
+			x = player.position.x + (int)(player.random().nextDouble() * 19 - 9);
+			y = player.position.y + (int)(player.random().nextDouble() * 19 - 9); 
 		}
 		
 		if (tries == 30)
@@ -71,8 +71,7 @@ public class CastSpellScreen implements Screen {
 
 		player.loseRupees(world, 5);
 		
-		player.position.x = x;
-		player.position.y = y;
+		world.move(player, x, y);
 	}
 
 	private void fireblast() {
@@ -4,9 +4,7 @@ import iryrwarosh.Common;
 import iryrwarosh.Creature;
 import iryrwarosh.Factory;
 import iryrwarosh.Item;
-import iryrwarosh.MessageBus;
-import iryrwarosh.Point;
-import iryrwarosh.Tile;
+import iryrwarosh.Rng;
 import iryrwarosh.World;
 import iryrwarosh.WorldCreated;
 import iryrwarosh.Worldgen;
@@ -21,10 +19,16 @@ import asciiPanel.AsciiPanel;
 public class ChooseStartingItemsScreen implements Screen {
 	private Item[] items;
 	private Factory factory;
+	private Rng random;
 	private List<Item> chosen = new ArrayList<Item>();
 	
 	public ChooseStartingItemsScreen(){
-		factory = new Factory();
+		this(System.nanoTime());
+	}
+	
+	public ChooseStartingItemsScreen(long seed){
+		random = new Rng(seed);
+		factory = new Factory(random.split("factory"));
 		items = new Item[]{
 			factory.sword(),
 			factory.club(),
@@ -86,54 +90,18 @@ public class ChooseStartingItemsScreen implements Screen {
 	}
 	
 	private Screen newGame(Factory factory, Item item1, Item item2){
-		World world = new Worldgen(80 / 3, 24 / 3).build();
+		World world = new Worldgen(80 / 3, 24 / 3, random.split("worldgen")).build();
+		factory.subscribeSagas(world);
+		world.useActivityZones(true);
 		
 		Creature player = factory.player(world);
 		player.swapLeftHand(world, item1); 
 		player.swapRightHand(world, item2);
 		
-		for (int i = 0; i < 80; i++)
-			factory.zora(world);
-		
-		for (int i = 0; i < 100; i++)
-			factory.goblin(world);
-
-		for (int i = 0; i < 4; i++)
-			factory.rival(world);
-		
-		for (Tile biome : new Tile[]{ 
-				Tile.GREEN_TREE1, Tile.GREEN_TREE1, Tile.GREEN_TREE1,
-				Tile.BROWN_TREE1, Tile.BROWN_TREE1, Tile.BROWN_TREE1,  
-				Tile.WHITE_TREE1, 
-				Tile.GREEN_ROCK, Tile.GREEN_ROCK, Tile.GREEN_ROCK, 
-				Tile.BROWN_ROCK, Tile.BROWN_ROCK, Tile.BROWN_ROCK, 
-				Tile.WHITE_ROCK,  
-				Tile.GREEN_TREE1, Tile.GREEN_TREE1, Tile.GREEN_TREE1,
-				Tile.BROWN_TREE1, Tile.BROWN_TREE1, Tile.BROWN_TREE1,  
-				Tile.WHITE_TREE1, 
-				Tile.GREEN_ROCK, Tile.GREEN_ROCK, Tile.GREEN_ROCK, 
-				Tile.BROWN_ROCK, Tile.BROWN_ROCK, Tile.BROWN_ROCK, 
-				Tile.WHITE_ROCK, 
-				Tile.DESERT_SAND1, Tile.WATER1 }){
-			for (int i = 0; i < 10; i++)
-				factory.monster(world, biome);
-		}
-
-		for (Point screen : world.map().getDeadEnds()){
-			if (world.map().screen(screen.x, screen.y).defaultWall == Tile.WHITE_WALL){
-				factory.miniboss(world, screen.x, screen.y);
-				world.add(factory.lostArtifact(), screen.x * 19 + 19 / 2, screen.y * 9 + 9 / 2);
-			} else {
-				switch ((int)(Math.random() * 5)){
-				case 0: world.addToScreen(factory.evasionPotion(), screen.x, screen.y); break;
-				case 1: world.addToScreen(factory.heartContainer(), screen.x, screen.y); break;
-				default: factory.miniboss(world, screen.x, screen.y); break;
-				}
-			}
-		}
+		factory.populate(world);
 		
 		world.update();
-		MessageBus.publish(new WorldCreated(world, player, "The world has been created."));
+		world.bus().publish(new WorldCreated(world, player, "The world has been created."));
 		
 		return new PlayScreen(world, factory, player);
 	}
@@ -1,7 +1,5 @@
 package iryrwarosh.screens;
 
-import iryrwarosh.MessageBus;
-
 import java.awt.event.KeyEvent;
 
 import asciiPanel.AsciiPanel;
@@ -28,7 +26,7 @@ public class ConfirmationScreen implements Screen {
 	public Screen respondToUserInput(KeyEvent key) {
 		switch (key.getKeyCode()){
         case KeyEvent.VK_Y:
-        	MessageBus.unsubscribe(previous);
+        	previous.unsubscribe();
         	return next;
         case KeyEvent.VK_N: 
         	return previous;
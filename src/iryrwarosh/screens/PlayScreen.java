@@ -7,10 +7,10 @@ import iryrwarosh.SaidOutLoud;
 import iryrwarosh.Trait;
 import iryrwarosh.Factory;
 import iryrwarosh.Handler;
+import iryrwarosh.Interest;
 import iryrwarosh.Item;
 import iryrwarosh.Killed;
 import iryrwarosh.Message;
-import iryrwarosh.MessageBus;
 import iryrwarosh.Moved;
 import iryrwarosh.Note;
 import iryrwarosh.Projectile;
@@ -27,7 +27,7 @@ import asciiPanel.AsciiCharacterData;
 import asciiPanel.AsciiPanel;
 import asciiPanel.TileTransformer;
 
-public class PlayScreen implements Screen, Handler {
+public class PlayScreen implements Screen, Handler<Message> {
 	private FameHandler fameHandler;
 	
 	private World world;
@@ -43,9 +43,19 @@ public class PlayScreen implements Screen, Handler {
 	
 	private int turnNumber = 0;
 	
+	private Interest nearPlayer = new Interest(){
+		public boolean covers(World world, Creature creature, int x, int y) { return creature == player || player.canHear(creature); }
+	};
+	
+	private Handler<Killed> onKilled = new Handler<Killed>(){
+		public void handle(Killed message) { addRandomBadGuy(); }
+	};
+	
 	public PlayScreen(World world, Factory factory, Creature player){
-		MessageBus.subscribe(this);
 		this.fameHandler = new FameHandler();
+		this.fameHandler.subscribe(world.bus());
+		world.bus().subscribe(Message.class, nearPlayer, this);
+		world.bus().subscribe(Killed.class, onKilled);
 		this.world = world;
 		this.factory = factory;
 		this.player = player;
@@ -136,7 +146,7 @@ public class PlayScreen implements Screen, Handler {
 			}
 		}
 		
-		for (Creature c : world.creatures()){
+		for (Creature c : world.creaturesInRectangle(getScrollX(), getScrollY(), screenWidth, screenHeight)){
 			int x = c.position.x - getScrollX();
 			int y = c.position.y - getScrollY();
 			
@@ -254,7 +264,7 @@ public class PlayScreen implements Screen, Handler {
 	@Override
 	public Screen respondToUserInput(KeyEvent key) {
 		if (player.hearts() < 1) {
-			MessageBus.unsubscribe(this);
+			unsubscribe();
 			return new DeadScreen(this, player.causeOfDeath());
 		}
 		
@@ -294,7 +304,7 @@ public class PlayScreen implements Screen, Handler {
         case KeyEvent.VK_COMMA:
         	Item item = world.item(player.position.x, player.position.y);
             if (item == null || !item.canBePickedUp()) {
-                MessageBus.publish(new Note(world, player, "Nothing to pick up here"));
+                world.bus().publish(new Note(world, player, "Nothing to pick up here"));
                 return this; //Don't spend an action when nothing to pick up
             } else {
                 return new PickupItemScreen(this, world, player);
@@ -318,15 +328,15 @@ public class PlayScreen implements Screen, Handler {
 		world.update();
 		
 		if (player.hearts() < 1) {
-			MessageBus.unsubscribe(this);
+			unsubscribe();
 			return new DeadScreen(this, player.causeOfDeath());
 		} else if (fameHandler.getFame(player) > 99){
-			MessageBus.unsubscribe(this);
+			unsubscribe();
 			return new VictoryScreen(this);
 		} else {
 			for (Creature creature : fameHandler.getFamousPeople()){
 				if (fameHandler.getFame(creature) > 99){
-					MessageBus.unsubscribe(this);
+					unsubscribe();
 					return new LostScreen(this);
 				}
 			}
@@ -335,27 +345,21 @@ public class PlayScreen implements Screen, Handler {
 		return this;
 	}
 
+	public void unsubscribe(){
+		world.bus().unsubscribe(this);
+		world.bus().unsubscribe(onKilled);
+		fameHandler.unsubscribe();
+	}
+	
 	@Override
 	public void handle(Message message) {
-		fameHandler.handle(message);
-		
 		if (message.involves(player) && !Moved.class.isAssignableFrom(message.getClass())){
 			messages.add(message);
 			messageLogScreen.record(message);
 		}
-		
-		if (Killed.class.isAssignableFrom(message.getClass()))
-			addRandomBadGuy();
 	}
 
 	private void addRandomBadGuy() {
-		if (Math.random() < 0.25){
-			factory.goblin(world);
-		} else {
-			Tile[] biomes = { Tile.GREEN_TREE1, Tile.BROWN_TREE1, Tile.WHITE_TREE1, Tile.GREEN_TREE1, Tile.BROWN_TREE1, 
-				Tile.GREEN_ROCK, Tile.BROWN_ROCK, Tile.WHITE_ROCK, Tile.DESERT_SAND1, Tile.WATER1 };
-			Tile biome = biomes[(int)(Math.random() * biomes.length)];
-			factory.monster(world, biome);
-		}
+		factory.randomBadGuy(world);
 	}
 }
@@ -1,15 +1,10 @@
 package iryrwarosh.screens;
 
-import iryrwarosh.ArmosSaga;
 import iryrwarosh.Tile;
 import iryrwarosh.Common;
-import iryrwarosh.CreatureAiHandler;
-import iryrwarosh.LootSaga;
-import iryrwarosh.MapExplorationHandler;
-import iryrwarosh.MessageBus;
-import iryrwarosh.ItemSpecialsSaga;
 
 import java.awt.event.KeyEvent;
+import java.util.Random;
 
 import asciiPanel.AsciiPanel;
 
@@ -21,23 +16,18 @@ public class StartScreen implements Screen {
 	Tile statue = Tile.STATUE;
 	Tile liquid = Tile.WATER1;
 	Tile[][] tiles = new Tile[19][9];
+	Random random = new Random();
 	
 	public StartScreen(){
-		MessageBus.subscribe(new ItemSpecialsSaga());
-		MessageBus.subscribe(new LootSaga());
-		MessageBus.subscribe(new ArmosSaga());
-		MessageBus.subscribe(new MapExplorationHandler());
-		MessageBus.subscribe(new CreatureAiHandler());
-		
 		addTheme();
 		buildRoom();
 	}
 
 	private void addTheme() {
 		statue = Tile.STATUE;
-		liquid = Math.random() < 0.1 ? Tile.LAVA1 : Tile.WATER1;
+		liquid = random.nextDouble() < 0.1 ? Tile.LAVA1 : Tile.WATER1;
 		
-		switch ((int)(Math.random() * 10)){
+		switch ((int)(random.nextDouble() * 10)){
 		case 0:
 			wall = Tile.GREEN_ROCK;
 			floor = Tile.GREEN_DIRT;
@@ -83,16 +73,16 @@ public class StartScreen implements Screen {
 		if (floor == Tile.WHITE_TILE1) {
 			special = Tile.WHITE_TILE1;
 			statue = Tile.STATUE_WHITE;
-			liquid = Math.random() < 0.5 ? Tile.LAVA1 : Tile.WATER1;
+			liquid = random.nextDouble() < 0.5 ? Tile.LAVA1 : Tile.WATER1;
 		} else if (floor == Tile.DESERT_SAND1) {
 			special = Tile.DESERT_SAND1;
 			liquid = Tile.DESERT_SAND1;
 			statue = Tile.DESERT_SAND1;
-		} else if (Math.random() < 0.5){
+		} else if (random.nextDouble() < 0.5){
 			Tile[] specials = { Tile.GREEN_ROCK, Tile.BROWN_ROCK, Tile.WHITE_ROCK, 
 					Tile.GREEN_TREE1, Tile.PINE_TREE1, Tile.BROWN_TREE1, Tile.BROWN_TREE4, Tile.WHITE_TREE1 };
 			
-			special = specials[(int)(Math.random() * specials.length)];
+			special = specials[(int)(random.nextDouble() * specials.length)];
 		} else {
 			special = wall;
 		}
@@ -123,7 +113,7 @@ public class StartScreen implements Screen {
 			default : tile = special;
 			}
 			
-			tiles[x][y] = tile.variation(x, y); 
+			tiles[x][y] = tile.variation(x, y, random); 
 		}
 		
 	}
@@ -1,5 +1,6 @@
 package iryrwarosh.screens;
 
+import iryrwarosh.Chunk;
 import iryrwarosh.Point;
 import iryrwarosh.Tile;
 import iryrwarosh.WorldMap;
@@ -46,10 +47,10 @@ public class WorldMapScreen implements Screen {
 			}
 		}
 		terminal.write('@', 
-				playerPosition.x / 19 * 3 + 1, playerPosition.y / 9 * 3 + 1, 
+				playerPosition.x / Chunk.WIDTH * 3 + 1, playerPosition.y / Chunk.HEIGHT * 3 + 1, 
 				
 				AsciiPanel.brightWhite, 
-				map.screen(playerPosition.x / 19, playerPosition.y / 9).defaultGround.background());
+				map.screen(playerPosition.x / Chunk.WIDTH, playerPosition.y / Chunk.HEIGHT).defaultGround.background());
 	}
 
 	private void displayUnexploredScreen(int x, int y, WorldScreen screen, AsciiPanel terminal) {